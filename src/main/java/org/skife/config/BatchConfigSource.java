@@ -0,0 +1,30 @@
+package org.skife.config;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link ConfigSource} that can look up many properties at once. Worth implementing for sources where every
+ * lookup has a fixed cost, like a lock, a file read or a round trip to another process: the
+ * {@link ConfigurationObjectFactory} asks for all the property names a config object can use in a single call.
+ *
+ * @since 0.18
+ */
+public interface BatchConfigSource extends ConfigSource
+{
+    /**
+     * @return The values of the given properties. Properties without a value are left out.
+     */
+    default Map<String, String> getStrings(final Collection<String> propertyNames)
+    {
+        final Map<String, String> result = new HashMap<String, String>();
+        for (String propertyName : propertyNames) {
+            final String value = getString(propertyName);
+            if (value != null) {
+                result.put(propertyName, value);
+            }
+        }
+        return result;
+    }
+}
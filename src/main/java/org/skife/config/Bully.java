@@ -8,11 +8,14 @@ import java.lang.reflect.WildcardType;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 class Bully
 {
@@ -37,6 +40,7 @@ class Bully
 
         // Look Brian, now it groks URIs. ;-)
         typeCoercibles.add(DefaultCoercibles.URI_COERCIBLE);
+        typeCoercibles.add(DefaultCoercibles.DURATION_COERCIBLE);
 
         defaultCoercibles.add(DefaultCoercibles.CASE_INSENSITIVE_ENUM_COERCIBLE);
         defaultCoercibles.add(DefaultCoercibles.VALUE_OF_COERCIBLE);
@@ -58,6 +62,11 @@ class Bully
      */
     private final List<Coercible<?>> coercibles = new ArrayList<Coercible<?>>();
 
+    /**
+     * Compiled custom separators, keyed by their expression.
+     */
+    private final Map<String, Pattern> separatorPatterns = new HashMap<String, Pattern>();
+
     public Bully()
     {
         coercibles.addAll(TYPE_COERCIBLES);
@@ -72,7 +81,17 @@ class Bully
         mappings.clear();
     }
 
-    public synchronized Object coerce(Type type, String value, Separator separator) {
+    public Object coerce(Type type, String value, Separator separator) {
+        return coerce(type, value, separator, false);
+    }
+
+    /**
+     * @param lazy If true, a {@link LazyTokenList} is returned for <code>List</code> and <code>Collection</code> types.
+     */
+    public synchronized Object coerce(Type type, String value, Separator separator, boolean lazy) {
+        if (lazy) {
+            return coerceLazily(type, value, separator);
+        }
         if (type instanceof Class) {
             Class<?> clazz = (Class<?>)type;
 
@@ -82,6 +101,9 @@ class Bully
             else if (Class.class.equals(clazz)) {
                 return coerceClass(type, null, value);
             }
+            else if (IntList.class.equals(clazz) || IntSet.class.equals(clazz) || LongList.class.equals(clazz) || LongSet.class.equals(clazz)) {
+                return coercePrimitiveCollection(clazz, value, separator);
+            }
             else {
                 return coerce(clazz, value);
             }
@@ -93,7 +115,10 @@ class Bully
             if (rawType instanceof Class<?>) {
                 Type[] args = parameterizedType.getActualTypeArguments();
 
-                if (args != null && args.length == 1) {
+                if (args != null && args.length == 2 && args[0] instanceof Class<?> && args[1] instanceof Class<?>) {
+                    return coerceMap((Class<?>)rawType, (Class<?>)args[0], (Class<?>)args[1], value, separator);
+                }
+                else if (args != null && args.length == 1) {
                     if (args[0] instanceof Class<?>) {
                         return coerceCollection((Class<?>)rawType, (Class<?>)args[0], value, separator);
                     }
@@ -106,6 +131,35 @@ class Bully
         throw new IllegalStateException(String.format("Don't know how to handle a '%s' type for value '%s'", type, value));
     }
 
+    private Object coerceLazily(Type type, String value, Separator separator) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            Type rawType = parameterizedType.getRawType();
+            Type[] args = parameterizedType.getActualTypeArguments();
+
+            if ((List.class.equals(rawType) || Collection.class.equals(rawType)) && args.length == 1 && args[0] instanceof Class<?>) {
+                if (value == null) {
+                    return null;
+                }
+                final Coercer<?> coercer = getCoercer((Class<?>)args[0], value);
+                // The built-in String and number coercers are stateless, only custom coercers need the lock.
+                return new LazyTokenList<Object>(value, coercer, tokenize(value, separator), isStateless(coercer) ? null : this);
+            }
+        }
+        throw new IllegalArgumentException(String.format("@LazyList is only supported for List and Collection types, not '%s'", type));
+    }
+
+    private static boolean isStateless(Coercer<?> coercer) {
+        return coercer == DefaultCoercibles.STRING_COERCER
+            || coercer == DefaultCoercibles.BOOLEAN_COERCER
+            || coercer == DefaultCoercibles.BYTE_COERCER
+            || coercer == DefaultCoercibles.SHORT_COERCER
+            || coercer == DefaultCoercibles.INTEGER_COERCER
+            || coercer == DefaultCoercibles.LONG_COERCER
+            || coercer == DefaultCoercibles.FLOAT_COERCER
+            || coercer == DefaultCoercibles.DOUBLE_COERCER;
+    }
+
     private boolean isAssignableFrom(Type targetType, Class<?> assignedClass) {
         if (targetType instanceof Class) {
             return ((Class<?>)targetType).isAssignableFrom(assignedClass);
@@ -151,32 +205,74 @@ class Bully
         else if (value.length() == 0) {
             return Array.newInstance(elemType, 0);
         }
+        else if (PrimitiveArrays.supports(elemType)) {
+            // No boxing, no token Strings and no reflective array stores for the primitive types.
+            return PrimitiveArrays.parse(elemType, tokenize(value, separator));
+        }
         else {
-            String[] tokens = value.split(separator == null ? Separator.DEFAULT : separator.value());
-            Object targetArray = Array.newInstance(elemType, tokens.length);
+            final ValueTokenizer tokenizer = tokenize(value, separator);
+            final Object targetArray = Array.newInstance(elemType, tokenizer.count());
 
-            for (int idx = 0; idx < tokens.length; idx++) {
-                Array.set(targetArray, idx, coerce(elemType, tokens[idx]));
+            for (int idx = 0; tokenizer.next(); idx++) {
+                Array.set(targetArray, idx, coerce(elemType, tokenizer.token()));
             }
             return targetArray;
         }
     }
 
+    private Object coercePrimitiveCollection(Class<?> containerType, String value, Separator separator) {
+        if (value == null) {
+            return null;
+        }
+        final boolean ints = IntList.class.equals(containerType) || IntSet.class.equals(containerType);
+        final Object values;
+
+        if (value.length() == 0) {
+            values = ints ? new int[0] : new long[0];
+        }
+        else {
+            values = PrimitiveArrays.parse(ints ? int.class : long.class, tokenize(value, separator));
+        }
+
+        if (IntList.class.equals(containerType)) {
+            return new IntList((int[]) values);
+        }
+        else if (IntSet.class.equals(containerType)) {
+            return IntSet.copyOf((int[]) values);
+        }
+        else if (LongList.class.equals(containerType)) {
+            return new LongList((long[]) values);
+        }
+        else {
+            return LongSet.copyOf((long[]) values);
+        }
+    }
+
     @SuppressWarnings({ "rawtypes", "unchecked" })
     private Object coerceCollection(Class<?> containerType, Class<?> elemType, String value, Separator separator) {
         if (value == null) {
             return null;
         }
+        else if (Set.class.equals(containerType)) {
+            final Object[] elements = coerceElements(elemType, value, separator);
+            if (elemType.isEnum()) {
+                // Backed by a bit mask, so contains() is a single bit test.
+                final EnumSet result = EnumSet.noneOf((Class<Enum>)elemType);
+                for (Object element : elements) {
+                    result.add(element);
+                }
+                return Collections.unmodifiableSet(result);
+            }
+            return CompactSet.copyOf(elements);
+        }
+        else if (Collection.class.equals(containerType) || List.class.equals(containerType)) {
+            return new CompactList(coerceElements(elemType, value, separator));
+        }
         else {
+            // A concrete container type was asked for, so hand out a (mutable) instance of exactly that type.
             Collection result = null;
 
-            if (Set.class.equals(containerType)) {
-                result = new LinkedHashSet();
-            }
-            else if (Collection.class.equals(containerType) || List.class.equals(containerType)) {
-                result = new ArrayList();
-            }
-            else if (Collection.class.isAssignableFrom(containerType)) {
+            if (Collection.class.isAssignableFrom(containerType)) {
                 try {
                     final Constructor<?> ctor = containerType.getConstructor();
 
@@ -192,15 +288,99 @@ class Bully
                 throw new IllegalStateException(String.format("Don't know how to handle a '%s' container type for value '%s'", containerType, value));
             }
             if (value.length() > 0) {
-                for (String token : value.split(separator == null ? Separator.DEFAULT : separator.value())) {
-                    result.add(coerce(elemType, token));
+                final ValueTokenizer tokenizer = tokenize(value, separator);
+                while (tokenizer.next()) {
+                    result.add(coerce(elemType, tokenizer.token()));
                 }
             }
             return result;
         }
     }
 
+    private Object[] coerceElements(Class<?> elemType, String value, Separator separator) {
+        if (value.length() == 0) {
+            return new Object[0];
+        }
+        final ValueTokenizer tokenizer = tokenize(value, separator);
+        final Object[] elements = new Object[tokenizer.count()];
+
+        for (int idx = 0; idx < elements.length && tokenizer.next(); idx++) {
+            elements[idx] = coerce(elemType, tokenizer.token());
+        }
+        return elements;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private Object coerceMap(Class<?> containerType, Class<?> keyType, Class<?> valueType, String value, Separator separator) {
+        if (value == null) {
+            return null;
+        }
+
+        Map result = null;
+        if (!Map.class.equals(containerType)) {
+            // A concrete map type was asked for, so hand out a (mutable) instance of exactly that type.
+            if (Map.class.isAssignableFrom(containerType)) {
+                try {
+                    result = (Map)containerType.getConstructor().newInstance();
+                }
+                catch (Exception ex) {
+                    // handled below
+                }
+            }
+            if (result == null) {
+                throw new IllegalStateException(String.format("Don't know how to handle a '%s' container type for value '%s'", containerType, value));
+            }
+        }
+        final ValueTokenizer tokenizer = tokenize(value, separator);
+        final Matcher keyValueMatcher = separatorPattern(separator == null ? Separator.DEFAULT_KEY_VALUE : separator.keyValue()).matcher(value);
+        final int size = tokenizer.count();
+        final Object[] keys = new Object[size];
+        final Object[] values = new Object[size];
+
+        for (int idx = 0; idx < size && tokenizer.next(); idx++) {
+            keyValueMatcher.region(tokenizer.start(), tokenizer.end());
+            if (!keyValueMatcher.find()) {
+                throw new IllegalArgumentException(String.format("Map entry '%s' in '%s' has no key/value separator", tokenizer.token(), value));
+            }
+            keys[idx] = coerce(keyType, value.substring(tokenizer.start(), keyValueMatcher.start()));
+            values[idx] = coerce(valueType, value.substring(keyValueMatcher.end(), tokenizer.end()));
+        }
+
+        if (result == null) {
+            if (keyType.isEnum()) {
+                final EnumMap enumMap = new EnumMap((Class<Enum>)keyType);
+                for (int idx = 0; idx < size; idx++) {
+                    enumMap.put(keys[idx], values[idx]);
+                }
+                return Collections.unmodifiableMap(enumMap);
+            }
+            return CompactMap.copyOf(keys, values);
+        }
+        for (int idx = 0; idx < size; idx++) {
+            result.put(keys[idx], values[idx]);
+        }
+        return result;
+    }
+
+    private ValueTokenizer tokenize(CharSequence value, Separator separator) {
+        final String regex = separator == null ? Separator.DEFAULT : separator.value();
+        return new ValueTokenizer(value, Separator.DEFAULT.equals(regex) ? null : separatorPattern(regex));
+    }
+
+    private Pattern separatorPattern(String regex) {
+        Pattern pattern = separatorPatterns.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            separatorPatterns.put(regex, pattern);
+        }
+        return pattern;
+    }
+
     private Object coerce(Class<?> clazz, String value) {
+        return getCoercer(clazz, value).coerce(value);
+    }
+
+    private Coercer<?> getCoercer(Class<?> clazz, String value) {
         Coercer<?> coercer = getCoercerFor(coercibles, clazz);
         if (coercer == null) {
             coercer = getCoercerFor(DEFAULT_COERCIBLES, clazz);
@@ -209,7 +389,7 @@ class Bully
                 throw new IllegalStateException(String.format("Don't know how to handle a '%s' type for value '%s'", clazz, value));
             }
         }
-        return coercer.coerce(value);
+        return coercer;
     }
 
     private Coercer<?> getCoercerFor(final List<Coercible<?>> coercibles, final Class<?> type)
@@ -4,6 +4,9 @@ import java.util.Arrays;
 
 /**
  * Do case insensitive string comparisons for determination of enum value matches.
+ *
+ * The constants of each enum type are indexed once per factory into a hash table keyed by their case folded
+ * string representation, so matching a value neither scans all constants nor allocates.
  */
 public class CaseInsensitiveEnumCoercible implements Coercible<Object>
 {
@@ -12,7 +15,12 @@ public class CaseInsensitiveEnumCoercible implements Coercible<Object>
         if (!clazz.isEnum()) {
             return null;
         }
+        // Not cached here, the Bully keeps the coercer of each type it was asked for.
+        return createCoercer(clazz);
+    }
 
+    private static Coercer<Object> createCoercer(final Class<?> clazz)
+    {
         final Enum<?>[] values;
         try {
             values = (Enum[]) clazz.getMethod("values").invoke(null);
@@ -21,6 +29,35 @@ public class CaseInsensitiveEnumCoercible implements Coercible<Object>
             throw new IllegalStateException("World seems to be broken, unable to access <EnumType>.values() static method", e);
         }
 
+        final String[] names = new String[values.length];
+        for (int idx = 0; idx < values.length; idx++) {
+            names[idx] = values[idx].toString();
+        }
+
+        // Open addressing, at most half full. Holds position + 1 of the constant, 0 marks a free slot.
+        int capacity = 2;
+        while (capacity < values.length * 2) {
+            capacity <<= 1;
+        }
+        final int[] slots = new int[capacity];
+        final int mask = capacity - 1;
+
+        for (int idx = 0; idx < values.length; idx++) {
+            int slot = foldedHash(names[idx]) & mask;
+            boolean duplicate = false;
+            while (slots[slot] != 0) {
+                // If two constants only differ in case, the first one declared wins as before.
+                if (names[slots[slot] - 1].equalsIgnoreCase(names[idx])) {
+                    duplicate = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (!duplicate) {
+                slots[slot] = idx + 1;
+            }
+        }
+
         return new Coercer<Object>()
         {
             public Object coerce(String value)
@@ -28,13 +65,28 @@ public class CaseInsensitiveEnumCoercible implements Coercible<Object>
                 if (value == null) {
                     return null;
                 }
-                for (Object o : values) {
-                    if (value.equalsIgnoreCase(o.toString())) {
-                        return o;
+                int slot = foldedHash(value) & mask;
+                int position;
+                while ((position = slots[slot]) != 0) {
+                    if (value.equalsIgnoreCase(names[position - 1])) {
+                        return values[position - 1];
                     }
+                    slot = (slot + 1) & mask;
                 }
                 throw new IllegalStateException("No enum value of " + Arrays.toString(values) + " matches [" + value + "]");
             }
         };
     }
+
+    /**
+     * Hash code that is consistent with {@link String#equalsIgnoreCase(String)}.
+     */
+    private static int foldedHash(final String value)
+    {
+        int h = 0;
+        for (int idx = 0; idx < value.length(); idx++) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(value.charAt(idx)));
+        }
+        return h ^ (h >>> 16);
+    }
 }
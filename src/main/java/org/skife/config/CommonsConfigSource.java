@@ -1,16 +1,92 @@
 package org.skife.config;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.configuration.AbstractConfiguration;
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.event.ConfigurationEvent;
+import org.apache.commons.configuration.event.ConfigurationListener;
+import org.apache.commons.configuration.event.EventSource;
 
 public class CommonsConfigSource implements ConfigSource
 {
+    /** Cached for properties that are not present; compared by identity. */
+    private static final String MISSING = new String("<missing>");
+
     private final Configuration config;
 
+    /** Joined values by property name, null if caching is off. */
+    private final ConcurrentMap<String, String> cache;
+
+    /** Cached properties whose raw value refers to other properties, they can change with any property. */
+    private final Set<String> interpolated;
+
+    /** Bumped on every change, so that a value computed during a change is not cached. */
+    private final AtomicLong modifications = new AtomicLong();
+
     public CommonsConfigSource(Configuration config) {
+        this(config, false);
+    }
+
+    /**
+     * @param caching If true, joined values and absent properties are cached until the configuration
+     *                reports a change to them. Requires a configuration that fires change events, i.e.
+     *                an {@link EventSource}. Changes to configurations nested into the given one (e.g. in a
+     *                <code>CompositeConfiguration</code>) do not fire events and are not picked up.
+     */
+    public CommonsConfigSource(Configuration config, boolean caching) {
         this.config = config;
+        if (caching) {
+            if (!(config instanceof EventSource)) {
+                throw new IllegalArgumentException(String.format("%s does not report changes and can not be cached", config.getClass().getName()));
+            }
+            this.cache = new ConcurrentHashMap<String, String>();
+            this.interpolated = ConcurrentHashMap.<String>newKeySet();
+            ((EventSource) config).addConfigurationListener(new ConfigurationListener() {
+                public void configurationChanged(ConfigurationEvent event) {
+                    if (!event.isBeforeUpdate()) {
+                        invalidate(event);
+                    }
+                }
+            });
+        }
+        else {
+            this.cache = null;
+            this.interpolated = null;
+        }
     }
 
     public String getString(String propertyName)
+    {
+        if (cache == null) {
+            return join(propertyName);
+        }
+
+        final String cached = cache.get(propertyName);
+        if (cached != null) {
+            return cached == MISSING ? null : cached;
+        }
+
+        final long before = modifications.get();
+        final String value = join(propertyName);
+        if (value != null) {
+            final Object raw = config.getProperty(propertyName);
+            if (raw != null && String.valueOf(raw).contains("${")) {
+                interpolated.add(propertyName);
+            }
+        }
+        cache.put(propertyName, value == null ? MISSING : value);
+        if (modifications.get() != before) {
+            // Changed while it was looked up, the value may be outdated already.
+            cache.remove(propertyName);
+        }
+        return value;
+    }
+
+    private String join(String propertyName)
     {
         final String [] strings = config.getStringArray(propertyName);
         if (strings == null || strings.length == 0) {
@@ -25,4 +101,28 @@ public class CommonsConfigSource implements ConfigSource
         }
         return sb.toString();
     }
+
+    private void invalidate(ConfigurationEvent event)
+    {
+        final int type = event.getType();
+        if (type == AbstractConfiguration.EVENT_READ_PROPERTY) {
+            return;
+        }
+        modifications.incrementAndGet();
+        final boolean singleProperty = (type == AbstractConfiguration.EVENT_ADD_PROPERTY
+                                        || type == AbstractConfiguration.EVENT_SET_PROPERTY
+                                        || type == AbstractConfiguration.EVENT_CLEAR_PROPERTY)
+                                       && event.getPropertyName() != null;
+        if (singleProperty) {
+            cache.remove(event.getPropertyName());
+            for (String name : interpolated) {
+                cache.remove(name);
+            }
+        }
+        else {
+            // A clear, a reload or a structural change, everything may be different.
+            cache.clear();
+            interpolated.clear();
+        }
+    }
 }
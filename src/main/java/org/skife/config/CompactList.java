@@ -0,0 +1,40 @@
+package org.skife.config;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list backed by a right-sized array. Returned for <code>List</code> and <code>Collection</code>
+ * config methods so that the value can be handed out without defensive copies.
+ */
+final class CompactList<E> extends AbstractList<E> implements RandomAccess
+{
+    private final Object[] elements;
+
+    /**
+     * Takes ownership of the array, which must not be changed afterwards.
+     */
+    CompactList(final Object[] elements)
+    {
+        this.elements = elements;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(final int index)
+    {
+        return (E) elements[index];
+    }
+
+    @Override
+    public int size()
+    {
+        return elements.length;
+    }
+
+    @Override
+    public Object[] toArray()
+    {
+        return elements.clone();
+    }
+}
@@ -0,0 +1,114 @@
+package org.skife.config;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable map that keeps keys and values in insertion order in two right-sized arrays and finds keys through
+ * an open addressing {@link HashIndex}. Returned for <code>Map</code> config methods so that the value can be
+ * handed out without defensive copies.
+ */
+final class CompactMap<K, V> extends AbstractMap<K, V>
+{
+    private final Object[] keys;
+    private final Object[] values;
+    private final HashIndex index;
+
+    private CompactMap(final Object[] keys, final Object[] values, final HashIndex index)
+    {
+        this.keys = keys;
+        this.values = values;
+        this.index = index;
+    }
+
+    /**
+     * Takes ownership of the arrays. For duplicate keys the position of the first one and the value of the
+     * last one win, same as repeatedly calling {@link Map#put(Object, Object)} on a <code>LinkedHashMap</code>.
+     */
+    static <K, V> CompactMap<K, V> copyOf(final Object[] keys, final Object[] values)
+    {
+        final HashIndex index = new HashIndex(keys.length);
+        int size = 0;
+        for (int idx = 0; idx < keys.length; idx++) {
+            keys[size] = keys[idx];
+            final int existing = index.add(keys, size);
+            if (existing < 0) {
+                values[size++] = values[idx];
+            }
+            else {
+                values[existing] = values[idx];
+            }
+        }
+        if (size == keys.length) {
+            return new CompactMap<K, V>(keys, values, index);
+        }
+        return new CompactMap<K, V>(Arrays.copyOf(keys, size), Arrays.copyOf(values, size), index);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key)
+    {
+        final int position = index.indexOf(keys, key);
+        return position < 0 ? null : (V) values[position];
+    }
+
+    @Override
+    public boolean containsKey(final Object key)
+    {
+        return index.indexOf(keys, key) >= 0;
+    }
+
+    @Override
+    public int size()
+    {
+        return keys.length;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet()
+    {
+        return new AbstractSet<Map.Entry<K, V>>()
+        {
+            @Override
+            public int size()
+            {
+                return keys.length;
+            }
+
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator()
+            {
+                return new Iterator<Map.Entry<K, V>>()
+                {
+                    private int next = 0;
+
+                    public boolean hasNext()
+                    {
+                        return next < keys.length;
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    public Map.Entry<K, V> next()
+                    {
+                        if (next >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+                        final int position = next++;
+                        return new AbstractMap.SimpleImmutableEntry<K, V>((K) keys[position], (V) values[position]);
+                    }
+
+                    public void remove()
+                    {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package org.skife.config;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable set that keeps its elements in insertion order in a right-sized array and finds them through
+ * an open addressing {@link HashIndex}. Returned for <code>Set</code> config methods so that the value can
+ * be handed out without defensive copies.
+ */
+final class CompactSet<E> extends AbstractSet<E>
+{
+    private final Object[] elements;
+    private final HashIndex index;
+
+    private CompactSet(final Object[] elements, final HashIndex index)
+    {
+        this.elements = elements;
+        this.index = index;
+    }
+
+    /**
+     * Takes ownership of the array, duplicates are dropped (the first one wins).
+     */
+    static <E> CompactSet<E> copyOf(final Object[] elements)
+    {
+        final HashIndex index = new HashIndex(elements.length);
+        int size = 0;
+        for (int idx = 0; idx < elements.length; idx++) {
+            elements[size] = elements[idx];
+            if (index.add(elements, size) < 0) {
+                size++;
+            }
+        }
+        return new CompactSet<E>(size == elements.length ? elements : Arrays.copyOf(elements, size), index);
+    }
+
+    @Override
+    public boolean contains(final Object o)
+    {
+        return index.indexOf(elements, o) >= 0;
+    }
+
+    @Override
+    public int size()
+    {
+        return elements.length;
+    }
+
+    @Override
+    public Object[] toArray()
+    {
+        return elements.clone();
+    }
+
+    @Override
+    public Iterator<E> iterator()
+    {
+        return new Iterator<E>()
+        {
+            private int next = 0;
+
+            public boolean hasNext()
+            {
+                return next < elements.length;
+            }
+
+            @SuppressWarnings("unchecked")
+            public E next()
+            {
+                if (next >= elements.length) {
+                    throw new NoSuchElementException();
+                }
+                return (E) elements[next++];
+            }
+
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -0,0 +1,272 @@
+package org.skife.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a binary config snapshot written by {@link ConfigSnapshotCompiler}. The file is memory mapped and
+ * holds a hash table over all properties, so nothing is parsed when it is opened; only the header and the
+ * units of the entries are checked. Values of primitive,
+ * {@link TimeSpan} and {@link DataAmount} config methods were converted and validated when the snapshot was
+ * compiled, and are handed to the factory without any text parsing.
+ *
+ * <h3>Format</h3>
+ * All numbers are big endian.
+ * <ul>
+ * <li>Header: magic (int), version (int), number of entries (int), number of slots (int, a power of two).</li>
+ * <li>Slots: one int per slot, the index of the entry + 1, or 0 for a free slot. Linear probing from
+ *     the spread hash of the key.</li>
+ * <li>Entries, {@value #ENTRY_SIZE} bytes each: hash (int), key offset and length (int, int), value offset and length
+ *     (int, int), value type (byte), unit (byte), two bytes padding, converted value (long).</li>
+ * <li>Value types: 0 text only, 1 long, 2 double (raw long bits), 3 float (raw int bits), 4 boolean (0 or 1),
+ *     5 time span (the period), 6 data amount (the value in its unit).</li>
+ * <li>Units, 0 for all other value types. Time spans: 0 ns, 1 us, 2 ms, 3 s, 4 m, 5 h, 6 d. Data amounts: 0 B,
+ *     1 KiB, 2 MiB, 3 GiB, 4 TiB, 5 PiB, 6 EiB, 7 kB, 8 MB, 9 GB, 10 TB, 11 PB, 12 EB.</li>
+ * <li>The UTF-8 bytes of all keys and values; offsets are relative to the start of this section.</li>
+ * </ul>
+ *
+ * @since 0.18
+ */
+public class CompiledConfigSource implements TypedConfigSource, EnumerableConfigSource
+{
+    static final int MAGIC = 0x434D5331; // "CMS1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int ENTRY_SIZE = 32;
+
+    static final byte TYPE_STRING = 0;
+    static final byte TYPE_LONG = 1;
+    static final byte TYPE_DOUBLE = 2;
+    static final byte TYPE_FLOAT = 3;
+    static final byte TYPE_BOOLEAN = 4;
+    static final byte TYPE_TIME_SPAN = 5;
+    static final byte TYPE_DATA_AMOUNT = 6;
+
+    /** The unit of a time span value is stored as its index in this table. Part of the format, append only. */
+    private static final TimeUnit[] TIME_UNIT_CODES = {
+        TimeUnit.NANOSECONDS, TimeUnit.MICROSECONDS, TimeUnit.MILLISECONDS, TimeUnit.SECONDS,
+        TimeUnit.MINUTES, TimeUnit.HOURS, TimeUnit.DAYS
+    };
+
+    /** The unit of a data amount value is stored as its index in this table. Part of the format, append only. */
+    private static final DataAmountUnit[] DATA_AMOUNT_UNIT_CODES = {
+        DataAmountUnit.BYTE,
+        DataAmountUnit.KIBIBYTE, DataAmountUnit.MEBIBYTE, DataAmountUnit.GIBIBYTE,
+        DataAmountUnit.TEBIBYTE, DataAmountUnit.PEBIBYTE, DataAmountUnit.EXIBYTE,
+        DataAmountUnit.KILOBYTE, DataAmountUnit.MEGABYTE, DataAmountUnit.GIGABYTE,
+        DataAmountUnit.TERABYTE, DataAmountUnit.PETABYTE, DataAmountUnit.EXABYTE
+    };
+
+    private final File file;
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int mask;
+    private final int entriesOffset;
+    private final int poolOffset;
+
+    public CompiledConfigSource(final File file) throws IOException
+    {
+        this.file = file;
+
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = raf.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(String.format("%s is too large to be mapped", file));
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        finally {
+            raf.close();
+        }
+
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException(String.format("%s is not a compiled config snapshot", file));
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(String.format("%s has snapshot version %d, only version %d is supported", file, buffer.getInt(4), VERSION));
+        }
+        this.count = buffer.getInt(8);
+        final int capacity = buffer.getInt(12);
+        if (count < 0 || capacity <= 0 || Integer.bitCount(capacity) != 1 || count > capacity
+            || HEADER_SIZE + (long) capacity * 4 + (long) count * ENTRY_SIZE > buffer.limit()) {
+            throw new IOException(String.format("%s is a damaged config snapshot", file));
+        }
+        this.mask = capacity - 1;
+        this.entriesOffset = HEADER_SIZE + capacity * 4;
+        this.poolOffset = entriesOffset + count * ENTRY_SIZE;
+
+        for (int idx = 0; idx < count; idx++) {
+            final int entry = entriesOffset + idx * ENTRY_SIZE;
+            final byte valueType = buffer.get(entry + 20);
+            final byte unit = buffer.get(entry + 21);
+            if ((valueType == TYPE_TIME_SPAN && (unit < 0 || unit >= TIME_UNIT_CODES.length))
+                || (valueType == TYPE_DATA_AMOUNT && (unit < 0 || unit >= DATA_AMOUNT_UNIT_CODES.length))) {
+                throw new IOException(String.format("%s is a damaged config snapshot, unknown unit %d", file, unit));
+            }
+        }
+    }
+
+    public String getString(final String propertyName)
+    {
+        final int entry = find(propertyName);
+        return entry < 0 ? null : decode(buffer.getInt(entry + 12), buffer.getInt(entry + 16));
+    }
+
+    public Object getValue(final String propertyName, final Type type)
+    {
+        if (!(type instanceof Class)) {
+            return null;
+        }
+        final int entry = find(propertyName);
+        if (entry < 0) {
+            return null;
+        }
+        final Class<?> clazz = (Class<?>) type;
+        final byte valueType = buffer.get(entry + 20);
+        final byte unit = buffer.get(entry + 21);
+        final long value = buffer.getLong(entry + 24);
+
+        switch (valueType) {
+            case TYPE_LONG:
+                if (clazz == long.class || clazz == Long.class) {
+                    return value;
+                }
+                if ((clazz == int.class || clazz == Integer.class) && value == (int) value) {
+                    return (int) value;
+                }
+                if ((clazz == short.class || clazz == Short.class) && value == (short) value) {
+                    return (short) value;
+                }
+                if ((clazz == byte.class || clazz == Byte.class) && value == (byte) value) {
+                    return (byte) value;
+                }
+                return null;
+            case TYPE_DOUBLE:
+                return clazz == double.class || clazz == Double.class ? Double.longBitsToDouble(value) : null;
+            case TYPE_FLOAT:
+                return clazz == float.class || clazz == Float.class ? Float.intBitsToFloat((int) value) : null;
+            case TYPE_BOOLEAN:
+                return clazz == boolean.class || clazz == Boolean.class ? value != 0 : null;
+            case TYPE_TIME_SPAN:
+                return clazz == TimeSpan.class ? new TimeSpan(value, TIME_UNIT_CODES[unit]) : null;
+            case TYPE_DATA_AMOUNT:
+                return clazz == DataAmount.class ? new DataAmount(value, DATA_AMOUNT_UNIT_CODES[unit]) : null;
+            default:
+                return null;
+        }
+    }
+
+    public Set<String> getPropertyNames()
+    {
+        final Set<String> names = new HashSet<String>(count * 2);
+        for (int idx = 0; idx < count; idx++) {
+            final int entry = entriesOffset + idx * ENTRY_SIZE;
+            names.add(decode(buffer.getInt(entry + 4), buffer.getInt(entry + 8)));
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CompiledConfigSource[" + file + "]";
+    }
+
+    /**
+     * @return The code of the unit in the snapshot format.
+     */
+    static byte code(final TimeUnit unit)
+    {
+        return code(TIME_UNIT_CODES, unit);
+    }
+
+    /**
+     * @return The code of the unit in the snapshot format.
+     */
+    static byte code(final DataAmountUnit unit)
+    {
+        return code(DATA_AMOUNT_UNIT_CODES, unit);
+    }
+
+    private static byte code(final Object[] codes, final Object unit)
+    {
+        for (int idx = 0; idx < codes.length; idx++) {
+            if (codes[idx] == unit) {
+                return (byte) idx;
+            }
+        }
+        throw new IllegalArgumentException(String.format("%s has no code in the snapshot format", unit));
+    }
+
+    /**
+     * Part of the snapshot file format: {@link ConfigSnapshotCompiler} stores these hashes and the slots they
+     * pick, and existing snapshots are read with them. It equals {@link HashIndex#hash(Object)} today, but must
+     * not be replaced by it or changed, or snapshots written before will no longer find their properties.
+     */
+    static int hash(final String key)
+    {
+        final int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return The offset of the entry of the property, -1 if there is none.
+     */
+    private int find(final String propertyName)
+    {
+        if (propertyName == null) {
+            return -1;
+        }
+        final int hash = hash(propertyName);
+        int slot = hash & mask;
+        int index;
+        while ((index = buffer.getInt(HEADER_SIZE + slot * 4)) != 0) {
+            final int entry = entriesOffset + (index - 1) * ENTRY_SIZE;
+            if (buffer.getInt(entry) == hash && keyEquals(propertyName, buffer.getInt(entry + 4), buffer.getInt(entry + 8))) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Compares ASCII names byte by byte, anything else is decoded first.
+     */
+    private boolean keyEquals(final String name, final int offset, final int length)
+    {
+        if (length < name.length()) {
+            return false;
+        }
+        final int start = poolOffset + offset;
+        for (int idx = 0; idx < name.length(); idx++) {
+            final char c = name.charAt(idx);
+            if (c >= 0x80) {
+                return name.equals(decode(offset, length));
+            }
+            if (idx >= length || buffer.get(start + idx) != c) {
+                return false;
+            }
+        }
+        return length == name.length();
+    }
+
+    private String decode(final int offset, final int length)
+    {
+        final byte[] bytes = new byte[length];
+        final ByteBuffer view = buffer.duplicate();
+        view.position(poolOffset + offset);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,221 @@
+package org.skife.config;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Compiles the properties a set of config classes can use into a binary snapshot that {@link CompiledConfigSource}
+ * reads. Every value of a non-parameterized config method is coerced to the method's return type while compiling,
+ * so an invalid value fails the compilation instead of the application start. Values of primitive,
+ * {@link TimeSpan} and {@link DataAmount} methods are stored converted. Values that depend on the machine
+ * (like "50%heap" or "2xcpus") are only stored as text and are resolved where the snapshot is used.
+ *
+ * Can be run from the command line:
+ * <pre>
+ * java org.skife.config.ConfigSnapshotCompiler &lt;properties file&gt; &lt;snapshot file&gt; &lt;config class&gt;...
+ * </pre>
+ *
+ * @since 0.18
+ */
+public final class ConfigSnapshotCompiler
+{
+    private ConfigSnapshotCompiler()
+    {
+    }
+
+    public static void main(final String[] args) throws Exception
+    {
+        if (args.length < 3) {
+            System.err.println("Usage: ConfigSnapshotCompiler <properties file> <snapshot file> <config class>...");
+            System.exit(1);
+        }
+        final Properties props = new Properties();
+        final InputStream in = new FileInputStream(args[0]);
+        try {
+            props.load(in);
+        }
+        finally {
+            in.close();
+        }
+        final Class<?>[] configClasses = new Class<?>[args.length - 2];
+        for (int idx = 2; idx < args.length; idx++) {
+            configClasses[idx - 2] = Class.forName(args[idx]);
+        }
+        final int count = compile(new SimplePropertyConfigSource(props), new File(args[1]), configClasses);
+        System.out.println(String.format("Wrote %d properties to %s", count, args[1]));
+    }
+
+    /**
+     * Writes all properties of the source that the config classes can use, see {@link PropertyNameFilter}.
+     *
+     * @return The number of properties written.
+     * @throws IllegalArgumentException if a value can not be converted to the type of its config method.
+     */
+    public static int compile(final EnumerableConfigSource source, final File output, final Class<?>... configClasses) throws IOException
+    {
+        final PropertyNameFilter filter = PropertyNameFilter.forConfigClasses(configClasses);
+        final List<String> names = new ArrayList<String>();
+        for (String name : new TreeSet<String>(source.getPropertyNames())) {
+            if (filter.accepts(name) && source.getString(name) != null) {
+                names.add(name);
+            }
+        }
+        final Map<String, Converted> converted = convert(source, configClasses);
+
+        int capacity = 2;
+        while (capacity < names.size() * 2) {
+            capacity <<= 1;
+        }
+        final int mask = capacity - 1;
+        final int[] slots = new int[capacity];
+
+        final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        final ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        final DataOutputStream entriesOut = new DataOutputStream(entries);
+        for (int idx = 0; idx < names.size(); idx++) {
+            final String name = names.get(idx);
+            final int hash = CompiledConfigSource.hash(name);
+            int slot = hash & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = idx + 1;
+
+            final byte[] key = name.getBytes(StandardCharsets.UTF_8);
+            final byte[] value = source.getString(name).getBytes(StandardCharsets.UTF_8);
+            final Converted typed = converted.get(name);
+
+            entriesOut.writeInt(hash);
+            entriesOut.writeInt(pool.size());
+            entriesOut.writeInt(key.length);
+            pool.write(key);
+            entriesOut.writeInt(pool.size());
+            entriesOut.writeInt(value.length);
+            pool.write(value);
+            entriesOut.writeByte(typed == null ? CompiledConfigSource.TYPE_STRING : typed.type);
+            entriesOut.writeByte(typed == null ? 0 : typed.unit);
+            entriesOut.writeShort(0);
+            entriesOut.writeLong(typed == null ? 0 : typed.value);
+        }
+        entriesOut.flush();
+
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)));
+        try {
+            out.writeInt(CompiledConfigSource.MAGIC);
+            out.writeInt(CompiledConfigSource.VERSION);
+            out.writeInt(names.size());
+            out.writeInt(capacity);
+            for (int slot : slots) {
+                out.writeInt(slot);
+            }
+            entries.writeTo(out);
+            pool.writeTo(out);
+        }
+        finally {
+            out.close();
+        }
+        return names.size();
+    }
+
+    /**
+     * Coerces the values of all non-parameterized config methods, the first converted value of a property wins.
+     */
+    private static Map<String, Converted> convert(final ConfigSource source, final Class<?>... configClasses)
+    {
+        final Bully bully = new Bully();
+        final Map<String, Converted> result = new HashMap<String, Converted>();
+
+        for (Class<?> configClass : configClasses) {
+            for (Method method : configClass.getMethods()) {
+                final Config annotation = method.getAnnotation(Config.class);
+                if (annotation == null || method.getParameterTypes().length > 0) {
+                    continue;
+                }
+                for (String propertyName : annotation.value()) {
+                    if (propertyName.contains("${")) {
+                        // Only known once the replacements are.
+                        continue;
+                    }
+                    final String value = source.getString(propertyName);
+                    if (value == null) {
+                        continue;
+                    }
+                    final Object coerced;
+                    try {
+                        coerced = bully.coerce(method.getGenericReturnType(), value, method.getAnnotation(Separator.class));
+                    }
+                    catch (RuntimeException e) {
+                        throw new IllegalArgumentException(String.format("Invalid value '%s' for '%s' in [%s]", value, propertyName, method.toGenericString()), e);
+                    }
+                    final Converted typed = Converted.of(method.getReturnType(), value, coerced);
+                    if (typed != null && !result.containsKey(propertyName)) {
+                        result.put(propertyName, typed);
+                    }
+                    // First value found wins, same as in the factory.
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final class Converted
+    {
+        private final byte type;
+        private final byte unit;
+        private final long value;
+
+        private Converted(final byte type, final int unit, final long value)
+        {
+            this.type = type;
+            this.unit = (byte) unit;
+            this.value = value;
+        }
+
+        private static Converted of(final Class<?> type, final String text, final Object coerced)
+        {
+            if (coerced == null) {
+                return null;
+            }
+            if (type == long.class || type == Long.class || type == int.class || type == Integer.class
+                || type == short.class || type == Short.class || type == byte.class || type == Byte.class) {
+                if (DefaultCoercibles.isCpuMultiple(text)) {
+                    return null;
+                }
+                return new Converted(CompiledConfigSource.TYPE_LONG, 0, ((Number) coerced).longValue());
+            }
+            if (type == double.class || type == Double.class) {
+                return new Converted(CompiledConfigSource.TYPE_DOUBLE, 0, Double.doubleToRawLongBits((Double) coerced));
+            }
+            if (type == float.class || type == Float.class) {
+                return new Converted(CompiledConfigSource.TYPE_FLOAT, 0, Float.floatToRawIntBits((Float) coerced));
+            }
+            if (type == boolean.class || type == Boolean.class) {
+                return new Converted(CompiledConfigSource.TYPE_BOOLEAN, 0, ((Boolean) coerced) ? 1 : 0);
+            }
+            if (type == TimeSpan.class) {
+                final TimeSpan timeSpan = (TimeSpan) coerced;
+                return new Converted(CompiledConfigSource.TYPE_TIME_SPAN, CompiledConfigSource.code(timeSpan.getUnit()), timeSpan.getPeriod());
+            }
+            if (type == DataAmount.class && !((DataAmount) coerced).isRelative()) {
+                final DataAmount amount = (DataAmount) coerced;
+                return new Converted(CompiledConfigSource.TYPE_DATA_AMOUNT, CompiledConfigSource.code(amount.getUnit()), amount.getValue());
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.skife.config;
+
+import java.util.Set;
+
+/**
+ * Notified by an {@link ObservableConfigSource} after its properties changed.
+ *
+ * @since 0.18
+ */
+public interface ConfigSourceListener
+{
+    /**
+     * Called after the new values are visible through the source.
+     *
+     * @param changedKeys The names of the properties that were added, removed or changed, or null if the source
+     *                    does not know which properties changed.
+     */
+    void sourceChanged(Set<String> changedKeys);
+}
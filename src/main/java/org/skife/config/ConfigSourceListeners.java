@@ -0,0 +1,44 @@
+package org.skife.config;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The listeners of an {@link ObservableConfigSource}. A failing listener is logged and does not keep the others
+ * from being notified.
+ */
+final class ConfigSourceListeners
+{
+    private static final Logger logger = LoggerFactory.getLogger(ConfigSourceListeners.class);
+
+    private final List<ConfigSourceListener> listeners = new CopyOnWriteArrayList<ConfigSourceListener>();
+
+    void add(final ConfigSourceListener listener)
+    {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener is null");
+        }
+        listeners.add(listener);
+    }
+
+    void remove(final ConfigSourceListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    void fire(final Set<String> changedKeys)
+    {
+        for (ConfigSourceListener listener : listeners) {
+            try {
+                listener.sourceChanged(changedKeys);
+            }
+            catch (RuntimeException e) {
+                logger.warn("Config source listener {} failed", listener, e);
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.skife.config;
 
 import net.bytebuddy.ByteBuddy;
 import net.bytebuddy.TypeCache;
+import net.bytebuddy.description.modifier.FieldManifestation;
 import net.bytebuddy.description.modifier.Visibility;
 import net.bytebuddy.dynamic.DynamicType;
 import net.bytebuddy.dynamic.loading.ClassInjector;
@@ -11,12 +12,26 @@ import net.bytebuddy.implementation.bind.annotation.*;
 import net.bytebuddy.matcher.ElementMatchers;
 
 import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,11 +45,34 @@ public class ConfigurationObjectFactory {
     private static final String INTERCEPTORS_FIELD_NAME = "___interceptors___";
     private static final Map<Class<?>, Field> interceptorsFieldsCache = synchronizedMap(new WeakHashMap<Class<?>, Field>());
     private static final Object monitor = new Object();
+    /** How many lookups of one async build run at the same time, and how many threads the default pool has. */
+    private static final int MAX_CONCURRENT_LOOKUPS = 16;
 
     private final ConfigSource config;
     private final Bully bully;
     private final Logger buildLogger;
     private final Level buildLogLevel;
+    private volatile Executor asyncExecutor;
+    private final Executor defaultAsyncExecutor = new OwnedExecutor("config-magic-async-", MAX_CONCURRENT_LOOKUPS, true);
+    private final Executor defaultReloadExecutor = new OwnedExecutor("config-magic-reload-", 1, false);
+    private final Executor defaultChangeListenerExecutor = new OwnedExecutor("config-magic-listener-", 1, false);
+    private volatile Executor changeListenerExecutor;
+    private volatile boolean customCoercibles;
+
+    // Guarded by reloadLock.
+    private final Object reloadLock = new Object();
+    private final List<Reloadable> reloadables = new ArrayList<Reloadable>();
+    private final Map<String, List<Binding>> bindings = new HashMap<String, List<Binding>>();
+    private boolean listening;
+
+    // Guarded by pendingLock. The changes that the queued reload picks up when it starts.
+    private final Object pendingLock = new Object();
+    private final Set<String> pendingPropertyNames = new HashSet<String>();
+    private boolean pendingAll;
+    /** Completes when the queued reload is done, null if no reload is queued. */
+    private CompletableFuture<Void> pendingReload;
+
+    private final ConcurrentMap<Method, List<ValueChangeListener<?>>> changeListeners = new ConcurrentHashMap<Method, List<ValueChangeListener<?>>>();
 
     public ConfigurationObjectFactory(Properties props) {
         this(new SimplePropertyConfigSource(props), LoggerFactory.getLogger(ConfigurationObjectFactory.class), Level.INFO);
@@ -57,6 +95,7 @@ public class ConfigurationObjectFactory {
 
     public void addCoercible(final Coercible<?> coercible) {
         this.bully.addCoercible(coercible);
+        this.customCoercibles = true;
     }
 
 
@@ -68,8 +107,398 @@ public class ConfigurationObjectFactory {
         return internalBuild(configClass, null);
     }
 
+    /**
+     * Sets the executor that the lookups of {@link #buildAsync(Class)} and the reloads of reloadable config
+     * objects run on. By default, lookups run on a virtual thread per task on JVMs that have virtual threads,
+     * otherwise on a pool of 16 daemon threads that belongs to this factory, so a slow source of one factory does
+     * not hold up the others. Reloads run on a daemon thread of their own by default, so they never wait for
+     * lookups. The default threads are only started when first needed and stop when idle.
+     */
+    public void setAsyncExecutor(final Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * Builds the config object without blocking the caller. The properties the object can use are looked up
+     * concurrently on the async executor (in a single call for a {@link BatchConfigSource}), the object is
+     * built once all of them are there. The lookups are split into at most 16 tasks, each of which looks up
+     * its share of the properties one after the other. Parameterized methods still look up their properties when called.
+     * A {@link TypedConfigSource} only reads memory and has its values converted already, so the object is built
+     * from it directly in a single task.
+     */
+    public <T> CompletableFuture<T> buildAsync(Class<T> configClass) {
+        return buildWithReplacementsAsync(configClass, null);
+    }
+
+    public <T> CompletableFuture<T> buildWithReplacementsAsync(final Class<T> configClass, final Map<String, String> mappedReplacements) {
+        final Executor executor = executor();
+        if (config instanceof TypedConfigSource) {
+            return CompletableFuture.supplyAsync(new Supplier<T>() {
+                public T get() {
+                    return internalBuild(configClass, mappedReplacements, config);
+                }
+            }, executor);
+        }
+        final Set<String> propertyNames = propertyNames(configClass, mappedReplacements);
+
+        final CompletableFuture<Map<String, String>> lookups;
+        if (config instanceof BatchConfigSource) {
+            lookups = CompletableFuture.supplyAsync(new Supplier<Map<String, String>>() {
+                public Map<String, String> get() {
+                    return ((BatchConfigSource) config).getStrings(propertyNames);
+                }
+            }, executor);
+        } else {
+            final List<String> names = new ArrayList<String>(propertyNames);
+            final int tasks = Math.min(names.size(), MAX_CONCURRENT_LOOKUPS);
+            final List<CompletableFuture<Map<String, String>>> chunks = new ArrayList<CompletableFuture<Map<String, String>>>(tasks);
+            for (int task = 0; task < tasks; task++) {
+                final List<String> chunk = names.subList(task * names.size() / tasks, (task + 1) * names.size() / tasks);
+                chunks.add(CompletableFuture.supplyAsync(new Supplier<Map<String, String>>() {
+                    public Map<String, String> get() {
+                        final Map<String, String> result = new HashMap<String, String>();
+                        for (String propertyName : chunk) {
+                            final String value = config.getString(propertyName);
+                            if (value != null) {
+                                result.put(propertyName, value);
+                            }
+                        }
+                        return result;
+                    }
+                }, executor));
+            }
+            lookups = CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[chunks.size()])).thenApply(new Function<Void, Map<String, String>>() {
+                public Map<String, String> apply(Void ignored) {
+                    final Map<String, String> result = new HashMap<String, String>();
+                    for (CompletableFuture<Map<String, String>> chunk : chunks) {
+                        result.putAll(chunk.join());
+                    }
+                    return result;
+                }
+            });
+        }
+        return lookups.thenApply(new Function<Map<String, String>, T>() {
+            public T apply(final Map<String, String> values) {
+                return internalBuild(configClass, mappedReplacements, new ConfigSource() {
+                    public String getString(String propertyName) {
+                        return values.get(propertyName);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Builds a config object that picks up new values when the config source changes. If the source is an
+     * {@link ObservableConfigSource}, the object is reloaded whenever it reports a change, otherwise only when
+     * {@link #reload()} is called.
+     *
+     * A reload builds the values of the object again on the reload thread (see {@link #setAsyncExecutor(Executor)})
+     * and then swaps them in with a single
+     * volatile write, so getters never block and never see a mix of old and new values. If the source reports
+     * which properties changed, only the values that use one of those properties are built again. Parameterized
+     * methods always read the source when they are called, so they need no reload. If a value can not be
+     * built (e.g. it does not convert to the return type), the reload of that object is logged and skipped and it
+     * keeps its current values. The factory only holds weak references to the objects it reloads.
+     */
+    public <T> T buildReloadable(Class<T> configClass) {
+        return buildReloadableWithReplacements(configClass, null);
+    }
+
+    public <T> T buildReloadableWithReplacements(Class<T> configClass, Map<String, String> mappedReplacements) {
+        final Map<String, String> replacements = mappedReplacements == null ? null : new HashMap<String, String>(mappedReplacements);
+        // The listener is in place and the object is built and registered under the lock, so a change that is
+        // reported while the object is built waits for the registration and then reloads the object.
+        synchronized (reloadLock) {
+            if (!listening && config instanceof ObservableConfigSource) {
+                ((ObservableConfigSource) config).addListener(new ConfigSourceListener() {
+                    public void sourceChanged(Set<String> changedKeys) {
+                        reload(changedKeys);
+                    }
+                });
+                listening = true;
+            }
+            final T instance = internalBuild(configClass, replacements);
+            final Reloadable reloadable = new Reloadable(instance, configClass, replacements, interceptorsField(instance.getClass()));
+            reloadables.add(reloadable);
+            for (final Method method : configClass.getMethods()) {
+                if (method.isAnnotationPresent(Config.class) && method.getParameterTypes().length == 0) {
+                    for (String propertyName : method.getAnnotation(Config.class).value()) {
+                        if (replacements != null) {
+                            propertyName = applyReplacements(propertyName, replacements);
+                        }
+                        reloadable.propertyNames.add(propertyName);
+                        List<Binding> bound = bindings.get(propertyName);
+                        if (bound == null) {
+                            bound = new ArrayList<Binding>();
+                            bindings.put(propertyName, bound);
+                        }
+                        bound.add(new Binding(reloadable, method));
+                    }
+                }
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Registers a listener that is called whenever a reload changes the value of the method on one of the
+     * reloadable config objects built by this factory. Values are compared with {@link Objects#deepEquals}, so
+     * a reload that builds an equal value does not call the listener. Listeners are called on the change listener
+     * executor, so a slow listener does not hold up reloads. With the default executor, listeners are called one
+     * at a time in the order of the changes.
+     *
+     * @param method A non-parameterized method with an {@link Config} annotation.
+     */
+    public <T> void onChange(final Method method, final ValueChangeListener<T> listener) {
+        if (!method.isAnnotationPresent(Config.class) || method.getParameterTypes().length > 0) {
+            throw new IllegalArgumentException(String.format("Method [%s] is not a non-parameterized @Config method", method.toGenericString()));
+        }
+        List<ValueChangeListener<?>> listeners = changeListeners.get(method);
+        if (listeners == null) {
+            changeListeners.putIfAbsent(method, new CopyOnWriteArrayList<ValueChangeListener<?>>());
+            listeners = changeListeners.get(method);
+        }
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(final Method method, final ValueChangeListener<?> listener) {
+        final List<ValueChangeListener<?>> listeners = changeListeners.get(method);
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Sets the executor that change listeners are called on. By default, that is a daemon thread that belongs to
+     * this factory and is used for nothing else. A custom executor must run the calls one after the other in the
+     * order they were submitted, otherwise listeners can see successive changes out of order and end up with a
+     * stale value.
+     */
+    public void setChangeListenerExecutor(final Executor changeListenerExecutor) {
+        this.changeListenerExecutor = changeListenerExecutor;
+    }
+
+    /**
+     * Reloads all reloadable config objects built by this factory.
+     *
+     * @return Completes when the reload is done.
+     */
+    public CompletableFuture<Void> reload() {
+        return reload(null);
+    }
+
+    /**
+     * Reloads the values of the reloadable config objects built by this factory that use one of the given
+     * properties. Values that use other properties are not built again, so the cost of a reload depends on the
+     * size of the change rather than on the size of the config objects. Changes that are reported while a reload
+     * is queued are merged into it, so a burst of changes queues at most one reload per factory.
+     *
+     * @param changedPropertyNames The names of the properties that changed, null to reload everything.
+     * @return Completes when the reload is done.
+     */
+    public CompletableFuture<Void> reload(final Set<String> changedPropertyNames) {
+        final CompletableFuture<Void> result;
+        synchronized (pendingLock) {
+            if (changedPropertyNames == null) {
+                pendingAll = true;
+            } else if (!pendingAll) {
+                pendingPropertyNames.addAll(changedPropertyNames);
+            }
+            if (pendingReload != null) {
+                return pendingReload;
+            }
+            result = new CompletableFuture<Void>();
+            pendingReload = result;
+        }
+        final Executor executor = asyncExecutor;
+        try {
+            (executor == null ? defaultReloadExecutor : executor).execute(new Runnable() {
+                public void run() {
+                    runPendingReload();
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (pendingLock) {
+                if (pendingReload == result) {
+                    pendingReload = null;
+                }
+            }
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private void runPendingReload() {
+        // Reloads run one at a time, so a slow reload can not overwrite the values of a later one.
+        synchronized (reloadLock) {
+            final boolean all;
+            final Set<String> changedPropertyNames;
+            final CompletableFuture<Void> result;
+            // Taken once the lock is held, so changes reported until now are part of this reload and later
+            // ones queue the next.
+            synchronized (pendingLock) {
+                all = pendingAll;
+                changedPropertyNames = new HashSet<String>(pendingPropertyNames);
+                result = pendingReload;
+                pendingAll = false;
+                pendingPropertyNames.clear();
+                pendingReload = null;
+            }
+            if (result == null) {
+                return;
+            }
+            try {
+                if (all) {
+                    reloadAll();
+                } else {
+                    reloadChanged(changedPropertyNames);
+                }
+                result.complete(null);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reloadAll() {
+        final List<Reloadable> collected = new ArrayList<Reloadable>();
+        for (Reloadable reloadable : reloadables) {
+            final Object instance = reloadable.instance.get();
+            if (instance == null) {
+                collected.add(reloadable);
+                continue;
+            }
+            try {
+                final Map<Method, Interceptor> previous = (Map<Method, Interceptor>) reloadable.interceptorsField.get(instance);
+                final Map<Method, Interceptor> interceptors = buildInterceptors(reloadable.configClass, reloadable.replacements,
+                        prefetch(reloadable.configClass, reloadable.replacements));
+                reloadable.interceptorsField.set(instance, interceptors);
+                fireChanges(changeListeners.keySet(), previous, interceptors);
+            } catch (Exception e) {
+                logger.warn("Could not reload {}, keeping the current values", reloadable.configClass.getName(), e);
+            }
+        }
+        unregister(collected);
+    }
+
     @SuppressWarnings("unchecked")
+    private void reloadChanged(final Set<String> changedPropertyNames) {
+        final Map<Reloadable, Set<Method>> affected = new LinkedHashMap<Reloadable, Set<Method>>();
+        for (String propertyName : changedPropertyNames) {
+            final List<Binding> bound = bindings.get(propertyName);
+            if (bound != null) {
+                for (Binding binding : bound) {
+                    Set<Method> methods = affected.get(binding.reloadable);
+                    if (methods == null) {
+                        methods = new LinkedHashSet<Method>();
+                        affected.put(binding.reloadable, methods);
+                    }
+                    methods.add(binding.method);
+                }
+            }
+        }
+
+        final List<Reloadable> collected = new ArrayList<Reloadable>();
+        for (Map.Entry<Reloadable, Set<Method>> entry : affected.entrySet()) {
+            final Reloadable reloadable = entry.getKey();
+            final Object instance = reloadable.instance.get();
+            if (instance == null) {
+                collected.add(reloadable);
+                continue;
+            }
+            try {
+                final Map<Method, Interceptor> previous = (Map<Method, Interceptor>) reloadable.interceptorsField.get(instance);
+                final Map<Method, Interceptor> interceptors = new HashMap<Method, Interceptor>(previous);
+                for (Method method : entry.getValue()) {
+                    interceptors.put(method, buildSimple(config, method, method.getAnnotation(Config.class), reloadable.replacements, null));
+                }
+                reloadable.interceptorsField.set(instance, interceptors);
+                fireChanges(entry.getValue(), previous, interceptors);
+            } catch (Exception e) {
+                logger.warn("Could not reload {}, keeping the current values", reloadable.configClass.getName(), e);
+            }
+        }
+        unregister(collected);
+    }
+
+    /**
+     * Calls the change listeners of the methods whose fixed value differs between the interceptor maps.
+     */
+    @SuppressWarnings("unchecked")
+    private void fireChanges(final Collection<Method> methods, final Map<Method, Interceptor> previous, final Map<Method, Interceptor> current) {
+        if (changeListeners.isEmpty()) {
+            return;
+        }
+        for (final Method method : methods) {
+            final List<ValueChangeListener<?>> listeners = changeListeners.get(method);
+            final Interceptor before = previous.get(method);
+            final Interceptor after = current.get(method);
+            if (listeners == null || listeners.isEmpty()
+                    || !(before instanceof ConfigMagicFixedValue) || !(after instanceof ConfigMagicFixedValue)) {
+                continue;
+            }
+            final Object oldValue = ((ConfigMagicFixedValue) before).value;
+            final Object newValue = ((ConfigMagicFixedValue) after).value;
+            if (Objects.deepEquals(oldValue, newValue)) {
+                continue;
+            }
+            final Executor executor = changeListenerExecutor == null ? defaultChangeListenerExecutor : changeListenerExecutor;
+            for (final ValueChangeListener<?> listener : listeners) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            ((ValueChangeListener<Object>) listener).valueChanged(oldValue, newValue);
+                        } catch (RuntimeException e) {
+                            logger.warn("Change listener for [{}] failed", method.toGenericString(), e);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Forgets config objects that were garbage collected.
+     */
+    private void unregister(final List<Reloadable> collected) {
+        for (Reloadable reloadable : collected) {
+            reloadables.remove(reloadable);
+            for (String propertyName : reloadable.propertyNames) {
+                final List<Binding> bound = bindings.get(propertyName);
+                if (bound == null) {
+                    continue;
+                }
+                for (Iterator<Binding> it = bound.iterator(); it.hasNext(); ) {
+                    if (it.next().reloadable == reloadable) {
+                        it.remove();
+                    }
+                }
+                if (bound.isEmpty()) {
+                    bindings.remove(propertyName);
+                }
+            }
+        }
+    }
+
+    private Executor executor() {
+        final Executor executor = asyncExecutor;
+        return executor == null ? defaultAsyncExecutor : executor;
+    }
+
     private <T> T internalBuild(final Class<T> configClass, Map<String, String> mappedReplacements) {
+        return internalBuild(configClass, mappedReplacements, prefetch(configClass, mappedReplacements));
+    }
+
+    /**
+     * @param source Where the non-parameterized methods get their values from.
+     */
+    private <T> T internalBuild(final Class<T> configClass, Map<String, String> mappedReplacements, final ConfigSource source) {
+        return newInstance(configClass, buildInterceptors(configClass, mappedReplacements, source));
+    }
+
+    private Map<Method, Interceptor> buildInterceptors(final Class<?> configClass, Map<String, String> mappedReplacements, final ConfigSource source) {
         final Map<Method, Interceptor> interceptors = new HashMap<Method, Interceptor>();
 
         // Now hook up the actual value interceptors.
@@ -83,7 +512,7 @@ public class ConfigurationObjectFactory {
                     }
                     interceptors.put(method, buildParameterized(method, annotation));
                 } else {
-                    interceptors.put(method, buildSimple(method, annotation, mappedReplacements, null));
+                    interceptors.put(method, buildSimple(source, method, annotation, mappedReplacements, null));
                 }
             } else if (method.isAnnotationPresent(ConfigReplacements.class)) {
                 final ConfigReplacements annotation = method.getAnnotation(ConfigReplacements.class);
@@ -94,26 +523,30 @@ public class ConfigurationObjectFactory {
 
                     interceptors.put(method, new ConfigMagicFixedValue(method, "annotation: @ConfigReplacements", fixedMap));
                 } else {
-                    interceptors.put(method, buildSimple(method, null, mappedReplacements, annotation));
+                    interceptors.put(method, buildSimple(source, method, null, mappedReplacements, annotation));
                 }
             } else if (Modifier.isAbstract(method.getModifiers())) {
                 throw new AbstractMethodError(String.format("Method [%s] is abstract and lacks an @Config annotation",
                         method.toGenericString()));
             }
         }
+        return interceptors;
+    }
 
-
+    @SuppressWarnings("unchecked")
+    private <T> T newInstance(final Class<T> configClass, final Map<Method, Interceptor> interceptors) {
         try {
             Class<?> proxyClass = typeCache.findOrInsert(configClass.getClassLoader(), configClass, new Callable<Class<?>>() {
                 @Override
                 public Class<?> call() throws Exception {
-                    ConfigMagicBeanToString toStringInterceptor = new ConfigMagicBeanToString();
                     // Hook up a toString method that prints out the settings for that bean if possible
                     DynamicType.Builder<T> builder = new ByteBuddy()
                             .subclass(configClass)
-                            .defineField(INTERCEPTORS_FIELD_NAME, Map.class, Visibility.PUBLIC)
+                            .defineField(INTERCEPTORS_FIELD_NAME, Map.class, Visibility.PUBLIC, FieldManifestation.VOLATILE)
                             .method(ElementMatchers.isToString())
-                            .intercept(MethodDelegation.to(toStringInterceptor));
+                            .intercept(MethodDelegation.withDefaultConfiguration()
+                                    .filter(ElementMatchers.named("describe"))
+                                    .to(ConfigMagicBeanToString.class));
 
                     for (Map.Entry<Method, Interceptor> e : interceptors.entrySet()) {
                         Object cb = e.getValue();
@@ -130,13 +563,7 @@ public class ConfigurationObjectFactory {
                 }
             }, monitor);
             T instance = (T) proxyClass.newInstance();
-            Field interceptorsField = interceptorsFieldsCache.get(proxyClass);
-            if (interceptorsField == null) {
-                interceptorsField = proxyClass.getField(INTERCEPTORS_FIELD_NAME);
-                interceptorsFieldsCache.put(proxyClass, interceptorsField);
-            }
-
-            interceptorsField.set(instance, interceptors);
+            interceptorsField(proxyClass).set(instance, interceptors);
             return instance;
         } catch (Exception e) {
             if (e instanceof RuntimeException) {
@@ -146,6 +573,19 @@ public class ConfigurationObjectFactory {
         }
     }
 
+    private static Field interceptorsField(final Class<?> proxyClass) {
+        Field interceptorsField = interceptorsFieldsCache.get(proxyClass);
+        if (interceptorsField == null) {
+            try {
+                interceptorsField = proxyClass.getField(INTERCEPTORS_FIELD_NAME);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(e);
+            }
+            interceptorsFieldsCache.put(proxyClass, interceptorsField);
+        }
+        return interceptorsField;
+    }
+
     private ClassLoadingStrategy<ClassLoader> resolveClassLoadingStrategy(Class<?> targetClass) throws ClassNotFoundException, NoSuchMethodException, InvocationTargetException, IllegalAccessException {
         ClassLoadingStrategy<ClassLoader> strategy;
         if (ClassInjector.UsingLookup.isAvailable()) {
@@ -164,11 +604,47 @@ public class ConfigurationObjectFactory {
         return strategy;
     }
 
-    private Interceptor buildSimple(Method method, Config annotation,
+    /**
+     * Looks up all the properties the non-parameterized methods of the class can use in one call, if the
+     * source supports that. A {@link TypedConfigSource} is used as it is, so its converted values are not lost.
+     */
+    private ConfigSource prefetch(final Class<?> configClass, final Map<String, String> mappedReplacements) {
+        if (!(config instanceof BatchConfigSource) || config instanceof TypedConfigSource) {
+            return config;
+        }
+        final Set<String> propertyNames = propertyNames(configClass, mappedReplacements);
+        if (propertyNames.isEmpty()) {
+            return config;
+        }
+        final Map<String, String> values = ((BatchConfigSource) config).getStrings(propertyNames);
+        return new ConfigSource() {
+            public String getString(String propertyName) {
+                return values.get(propertyName);
+            }
+        };
+    }
+
+    /**
+     * @return All property names the non-parameterized methods of the class can use.
+     */
+    private Set<String> propertyNames(final Class<?> configClass, final Map<String, String> mappedReplacements) {
+        final Set<String> propertyNames = new LinkedHashSet<String>();
+        for (final Method method : configClass.getMethods()) {
+            if (method.isAnnotationPresent(Config.class) && method.getParameterTypes().length == 0) {
+                for (String propertyName : method.getAnnotation(Config.class).value()) {
+                    propertyNames.add(mappedReplacements == null ? propertyName : applyReplacements(propertyName, mappedReplacements));
+                }
+            }
+        }
+        return propertyNames;
+    }
+
+    private Interceptor buildSimple(ConfigSource source, Method method, Config annotation,
                                     Map<String, String> mappedReplacements, ConfigReplacements mapAnnotation) {
         String assignedFrom = null;
         String[] propertyNames = new String[0];
         String value = null;
+        Object typedValue = null;
 
         // Annotation will be null for an @ConfigReplacements, in which case "value" will
         // be preset and ready to be defaulted + bullied
@@ -186,7 +662,14 @@ public class ConfigurationObjectFactory {
                 if (mappedReplacements != null) {
                     propertyName = applyReplacements(propertyName, mappedReplacements);
                 }
-                value = config.getString(propertyName);
+                typedValue = typedValue(source, propertyName, method);
+                if (typedValue != null) {
+                    assignedFrom = "property: '" + propertyName + "'";
+                    buildLog("Assigning converted value [{}] for [{}] on [{}#{}()]",
+                            new Object[]{typedValue, propertyName, method.getDeclaringClass().getName(), method.getName()});
+                    break;
+                }
+                value = source.getString(propertyName);
 
                 // First value found wins
                 if (value != null) {
@@ -217,6 +700,9 @@ public class ConfigurationObjectFactory {
             throw new IllegalArgumentException(String.format("@Default and @DefaultNull present in [%s]", method.toGenericString()));
         }
 
+        if (typedValue != null) {
+            return new ConfigMagicFixedValue(method, assignedFrom, typedValue);
+        }
 
         //
         // This is how the value logic works if no value has been set by the config:
@@ -253,10 +739,22 @@ public class ConfigurationObjectFactory {
             }
         }
 
-        final Object finalValue = bully.coerce(method.getGenericReturnType(), value, method.getAnnotation(Separator.class));
+        final Object finalValue = bully.coerce(method.getGenericReturnType(), value, method.getAnnotation(Separator.class),
+                method.isAnnotationPresent(LazyList.class));
         return new ConfigMagicFixedValue(method, assignedFrom, finalValue);
     }
 
+    /**
+     * @return The value of the property already converted by a {@link TypedConfigSource}, null if there is none.
+     *         Not used once custom coercibles were added, as those may convert differently.
+     */
+    private Object typedValue(ConfigSource source, String propertyName, Method method) {
+        if (customCoercibles || !(source instanceof TypedConfigSource)) {
+            return null;
+        }
+        return ((TypedConfigSource) source).getValue(propertyName, method.getGenericReturnType());
+    }
+
     private void buildLog(String format, Object... arguments) {
         switch (buildLogLevel) {
             case TRACE:
@@ -321,7 +819,8 @@ public class ConfigurationObjectFactory {
                     method.toGenericString()));
         }
 
-        final Object bulliedDefaultValue = bully.coerce(method.getGenericReturnType(), defaultValue, method.getAnnotation(Separator.class));
+        final Object bulliedDefaultValue = bully.coerce(method.getGenericReturnType(), defaultValue, method.getAnnotation(Separator.class),
+                method.isAnnotationPresent(LazyList.class));
         final String[] annotationValues = annotation.value();
 
         if (annotationValues == null || annotationValues.length == 0) {
@@ -369,6 +868,94 @@ public class ConfigurationObjectFactory {
         return sb.toString();
     }
 
+    /**
+     * An executor of a factory that creates its threads when it is first used. The threads are daemon threads
+     * that stop after a minute without work, so a factory that is no longer used does not keep any.
+     */
+    private static final class OwnedExecutor implements Executor {
+        private final String threadNamePrefix;
+        private final int threads;
+        private final boolean virtualThreads;
+        private volatile Executor delegate;
+
+        /**
+         * @param virtualThreads Whether to run every task on its own virtual thread instead, on JVMs that have them.
+         */
+        private OwnedExecutor(final String threadNamePrefix, final int threads, final boolean virtualThreads) {
+            this.threadNamePrefix = threadNamePrefix;
+            this.threads = threads;
+            this.virtualThreads = virtualThreads;
+        }
+
+        public void execute(final Runnable command) {
+            Executor executor = delegate;
+            if (executor == null) {
+                synchronized (this) {
+                    executor = delegate;
+                    if (executor == null) {
+                        executor = create();
+                        delegate = executor;
+                    }
+                }
+            }
+            executor.execute(command);
+        }
+
+        private Executor create() {
+            if (virtualThreads) {
+                try {
+                    // Java 21 and later.
+                    return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                } catch (Exception e) {
+                    logger.debug("No virtual threads available, using a thread pool for async builds");
+                }
+            }
+            final AtomicInteger count = new AtomicInteger();
+            final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread = new Thread(runnable, threadNamePrefix + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /**
+     * A config object built by {@link #buildReloadable(Class)}, and what is needed to build its values again.
+     */
+    private static final class Reloadable {
+        private final WeakReference<Object> instance;
+        private final Class<?> configClass;
+        private final Map<String, String> replacements;
+        private final Field interceptorsField;
+        /** All properties the non-parameterized methods of the object can use. */
+        private final Set<String> propertyNames = new HashSet<String>();
+
+        private Reloadable(final Object instance, final Class<?> configClass, final Map<String, String> replacements, final Field interceptorsField) {
+            this.instance = new WeakReference<Object>(instance);
+            this.configClass = configClass;
+            this.replacements = replacements;
+            this.interceptorsField = interceptorsField;
+        }
+    }
+
+    /**
+     * A method of a reloadable config object whose value uses a property.
+     */
+    private static final class Binding {
+        private final Reloadable reloadable;
+        private final Method method;
+
+        private Binding(final Reloadable reloadable, final Method method) {
+            this.reloadable = reloadable;
+            this.method = method;
+        }
+    }
+
     public static abstract class Interceptor {
         @BindingPriority(9999)
         @RuntimeType
@@ -496,7 +1083,8 @@ public class ConfigurationObjectFactory {
                     if (value != null) {
                         logger.debug("Assigning value [{}] for [{}] on [{}#{}()]",
                                 new Object[]{value, property, method.getDeclaringClass().getName(), method.getName()});
-                        return bully.coerce(method.getGenericReturnType(), value, method.getAnnotation(Separator.class));
+                        return bully.coerce(method.getGenericReturnType(), value, method.getAnnotation(Separator.class),
+                                method.isAnnotationPresent(LazyList.class));
                     }
                 } else {
                     throw new IllegalStateException("Argument list doesn't match @Param list");
@@ -521,33 +1109,28 @@ public class ConfigurationObjectFactory {
     }
 
 
+    /**
+     * Prints the interceptors the object has right now. Nothing is cached here, the interceptors of an
+     * object are replaced on every reload; the value interceptors cache their own part.
+     */
     public static final class ConfigMagicBeanToString extends Interceptor {
 
-        private transient String toStringValue = null;
-
+        public static String describe(@FieldValue(INTERCEPTORS_FIELD_NAME) Map<Method, Interceptor> interceptors) {
+            final StringBuilder sb = new StringBuilder();
+            Iterator<Interceptor> it = interceptors.values().iterator();
+            while (it.hasNext()) {
+                sb.append(it.next().toString());
 
-        @Override
-        protected Object intercept(Map<Method, Interceptor> interceptors, Object[] args, Callable<Object> superCall) {
-            Collection<Interceptor> callbacks = interceptors.values();
-            if (toStringValue == null) {
-                final StringBuilder sb = new StringBuilder();
-                Iterator<Interceptor> it = callbacks.iterator();
-                while (it.hasNext()) {
-                    Object cb = it.next();
-                    if (cb != this) {
-                        sb.append(cb.toString());
-
-                        if (it.hasNext()) {
-                            sb.append("\n");
-                        }
-                    }
+                if (it.hasNext()) {
+                    sb.append("\n");
                 }
-
-
-                toStringValue = sb.toString();
             }
+            return sb.toString();
+        }
 
-            return toStringValue;
+        @Override
+        protected Object intercept(Map<Method, Interceptor> interceptors, Object[] args, Callable<Object> superCall) {
+            return describe(interceptors);
         }
     }
 }
@@ -1,34 +1,58 @@
 package org.skife.config;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 public class DataAmount
 {
     private final long value;
     private final DataAmountUnit unit;
     private final long numBytes; 
-    private static final Pattern SPLIT = Pattern.compile("^(\\d+)\\s*([a-zA-Z]+)$");
-    private static final Pattern NUM_ONLY = Pattern.compile("^(\\d+)$");
+    private final boolean relative;
 
+    /**
+     * Accepts a number, optionally followed by whitespace and a unit symbol (see {@link DataAmountUnit}),
+     * e.g. "20kB" or "1 GiB". Undecorated numbers are bytes. Parsed by hand in a single pass.
+     *
+     * Also accepts a percentage of the maximum heap size ("25%heap"), of the maximum direct memory ("10%direct")
+     * or of the cgroup memory limit of the process, or the physical memory if there is none ("50%memory").
+     * Percentages above 100 are rejected. These are evaluated when the amount is created and result in a plain number of bytes.
+     */
     public DataAmount(String spec)
     {
-        Matcher m = SPLIT.matcher(spec);
-        if (!m.matches()) {
+        final int percentIndex = spec.indexOf('%');
+        if (percentIndex >= 0) {
+            unit = DataAmountUnit.BYTE;
+            value = numBytes = ResourceLimits.DEFAULT.parseMemoryRelative(spec, percentIndex);
+            relative = true;
+            return;
+        }
+
+        final int length = spec.length();
+        int idx = 0;
+        while (idx < length && TimeSpan.isDigit(spec.charAt(idx))) {
+            idx++;
+        }
+        final int numberEnd = idx;
+        while (idx < length && TimeSpan.isWhitespace(spec.charAt(idx))) {
+            idx++;
+        }
+        final int unitStart = idx;
+        while (idx < length && isLetter(spec.charAt(idx))) {
+            idx++;
+        }
+
+        if (numberEnd == 0 || idx != length || (unitStart == length && numberEnd != length)) {
+            throw new IllegalArgumentException(String.format("%s is not a valid data amount", spec));
+        }
+
+        if (numberEnd == length) {
             // #7: allow undecorated unit to mean basic bytes
-            m = NUM_ONLY.matcher(spec);
-            if (!m.matches()) {
-                throw new IllegalArgumentException(String.format("%s is not a valid data amount", spec));
-            }
             unit = DataAmountUnit.BYTE;
-            value = numBytes = Long.parseLong(spec);
+            value = numBytes = PrimitiveArrays.parseLong(spec, 0, numberEnd);
         } else {
-            String number = m.group(1);
-            String type = m.group(2);
-            this.value = Long.parseLong(number);
-            this.unit = DataAmountUnit.fromString(type);
+            this.value = PrimitiveArrays.parseLong(spec, 0, numberEnd);
+            this.unit = DataAmountUnit.fromString(spec, unitStart, length, false);
             this.numBytes = unit.getFactor() * value;
         }
+        this.relative = false;
     }
 
     public DataAmount(long value, DataAmountUnit unit)
@@ -36,6 +60,7 @@ public class DataAmount
         this.value = value;
         this.unit = unit;
         this.numBytes = unit.getFactor() * value;
+        this.relative = false;
     }
 
     /**
@@ -45,6 +70,7 @@ public class DataAmount
     {
         value = numBytes = rawBytes;
         unit = DataAmountUnit.BYTE;
+        relative = false;
     }
     
     public long getValue()
@@ -62,11 +88,26 @@ public class DataAmount
         return numBytes;
     }
 
+    /**
+     * @return Whether the amount was given relative to the memory of the JVM or machine, like "25%heap", so its
+     *         number of bytes depends on where it was created.
+     * @since 0.18
+     */
+    public boolean isRelative()
+    {
+        return relative;
+    }
+
     public DataAmount convertTo(DataAmountUnit newUnit)
     {
         return new DataAmount(numBytes / newUnit.getFactor(), newUnit);
     }
 
+    private static boolean isLetter(char c)
+    {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
     @Override
     public String toString()
     {
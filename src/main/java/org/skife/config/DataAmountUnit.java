@@ -39,22 +39,91 @@ public enum DataAmountUnit
     
     public static DataAmountUnit fromString(String text)
     {
-        for (DataAmountUnit unit : DataAmountUnit.values()) {
-            if (unit.symbol.equals(text)) {
-                return unit;
-            }
+        return fromString(text, 0, text.length(), false);
+    }
+
+    public static DataAmountUnit fromStringCaseInsensitive(String text)
+    {
+        return fromString(text, 0, text.length(), true);
+    }
+
+    /**
+     * Looks up the unit for the symbol found in the given range of the text without scanning
+     * all units or creating Strings.
+     */
+    static DataAmountUnit fromString(String text, int start, int end, boolean ignoreCase)
+    {
+        DataAmountUnit unit = null;
+
+        switch (end - start) {
+            case 1:
+                if (matches(text.charAt(start), 'B', ignoreCase)) {
+                    unit = BYTE;
+                }
+                break;
+            case 2:
+                if (matches(text.charAt(start + 1), 'B', ignoreCase)) {
+                    unit = decimal(text.charAt(start), ignoreCase);
+                }
+                break;
+            case 3:
+                if (matches(text.charAt(start + 1), 'i', ignoreCase) && matches(text.charAt(start + 2), 'B', ignoreCase)) {
+                    unit = binary(text.charAt(start), ignoreCase);
+                }
+                break;
+            default:
+                break;
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("Unknown unit '" + text.substring(start, end) + "'");
         }
-        throw new IllegalArgumentException("Unknown unit '" + text + "'");
+        return unit;
     }
 
-    public static DataAmountUnit fromStringCaseInsensitive(String origText)
+    private static DataAmountUnit decimal(char prefix, boolean ignoreCase)
     {
-        final String text = origText.toLowerCase();
-        for (DataAmountUnit unit : DataAmountUnit.values()) {
-            if (unit.symbol.equals(text)) {
-                return unit;
-            }
+        switch (ignoreCase ? Character.toUpperCase(prefix) : prefix) {
+            case 'k':
+                return KILOBYTE;
+            case 'K':
+                return ignoreCase ? KILOBYTE : null;
+            case 'M':
+                return MEGABYTE;
+            case 'G':
+                return GIGABYTE;
+            case 'T':
+                return TERABYTE;
+            case 'P':
+                return PETABYTE;
+            case 'E':
+                return EXABYTE;
+            default:
+                return null;
         }
-        throw new IllegalArgumentException("Unknown unit '" + origText + "'");
+    }
+
+    private static DataAmountUnit binary(char prefix, boolean ignoreCase)
+    {
+        switch (ignoreCase ? Character.toUpperCase(prefix) : prefix) {
+            case 'K':
+                return KIBIBYTE;
+            case 'M':
+                return MEBIBYTE;
+            case 'G':
+                return GIBIBYTE;
+            case 'T':
+                return TEBIBYTE;
+            case 'P':
+                return PEBIBYTE;
+            case 'E':
+                return EXIBYTE;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean matches(char c, char expected, boolean ignoreCase)
+    {
+        return c == expected || (ignoreCase && Character.toUpperCase(c) == Character.toUpperCase(expected));
     }
 }
@@ -5,6 +5,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.net.URI;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -98,6 +100,15 @@ final class DefaultCoercibles
         }
     };
 
+    static final Coercible<Duration> DURATION_COERCIBLE = new Coercible<Duration>() {
+        public Coercer<Duration> accept(final Class<?> clazz) {
+            if (Duration.class.equals(clazz)) {
+                return DefaultCoercibles.DURATION_COERCER;
+            }
+            return null;
+        }
+    };
+
     /**
      * A Coercible that accepts any type with a static <code>valueOf(String)</code> method.
      */
@@ -253,12 +264,30 @@ final class DefaultCoercibles
         }
     };
 
+    /**
+     * Besides plain numbers, accepts multiples of the available processors like "2xcpus", "0.5xcpus" or "cpus".
+     */
     static final Coercer<Integer> INTEGER_COERCER = new Coercer<Integer>() {
         public Integer coerce(final String value) {
-            return value != null ? Integer.valueOf(value) : null;
+            if (value == null) {
+                return null;
+            }
+            if (!isCpuMultiple(value)) {
+                return Integer.valueOf(value);
+            }
+            return ResourceLimits.DEFAULT.parseCpuRelative(value);
         }
     };
 
+    /**
+     * @return Whether an int value is a multiple of the available processors like "2xcpus", which differs
+     *         between machines.
+     */
+    static boolean isCpuMultiple(final String value) {
+        // Plain numbers end in a digit, only anything else can be relative to the processors.
+        return !value.isEmpty() && !Character.isDigit(value.charAt(value.length() - 1)) && ResourceLimits.isCpuRelative(value);
+    }
+
     static final Coercer<Long> LONG_COERCER = new Coercer<Long>() {
         public Long coerce(final String value) {
             return value != null ? Long.valueOf(value) : null;
@@ -289,6 +318,35 @@ final class DefaultCoercibles
         }
     };
 
+    /**
+     * Accepts ISO-8601 durations like "PT1M30S" as well as everything {@link TimeSpan} understands.
+     */
+    static final Coercer<Duration> DURATION_COERCER = new Coercer<Duration>() {
+        public Duration coerce(final String value) {
+            if (value == null) {
+                return null;
+            }
+            final String trimmed = value.trim();
+            if (isIsoDuration(trimmed)) {
+                try {
+                    return Duration.parse(trimmed);
+                }
+                catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException(String.format("%s is not a valid duration", value), e);
+                }
+            }
+            return new TimeSpan(trimmed).toDuration();
+        }
+
+        private boolean isIsoDuration(final String value) {
+            int idx = 0;
+            if (value.length() > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+                idx++;
+            }
+            return value.length() > idx && (value.charAt(idx) == 'P' || value.charAt(idx) == 'p');
+        }
+    };
+
     public static final RuntimeException convertException(final Throwable t)
     {
         if (t instanceof RuntimeException) {
@@ -0,0 +1,359 @@
+package org.skife.config;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads properties from a directory that holds one file per property, like a mounted Kubernetes Secret or
+ * ConfigMap. The file name is the property name (files in subdirectories are named by their path, joined with
+ * dots); the content, less a single trailing line break, is the value. Names starting with a dot are ignored,
+ * which skips the <code>..data</code> indirection of Kubernetes mounts.
+ *
+ * The directory is scanned once and all small files are read in parallel into an in-memory table, so lookups
+ * never touch the file system. The files are read on a few threads of the source's own rather than on the common
+ * fork/join pool, as the reads block. Files of {@value #LARGE_FILE_SIZE} bytes and more are only memory mapped
+ * and decoded when they are first asked for. The directory and its subdirectories are watched and scanned again when
+ * they change, e.g. on the <code>..data</code> symlink swap; listeners are told which properties changed. A scan
+ * that fails, e.g. because a file disappeared in the middle of a swap, is retried.
+ *
+ * @since 0.18
+ */
+public class DirectoryConfigSource implements ObservableConfigSource, EnumerableConfigSource, Closeable
+{
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryConfigSource.class);
+
+    static final int LARGE_FILE_SIZE = 64 * 1024;
+
+    /** How many threads read files at the same time. */
+    private static final int READ_THREADS = 4;
+
+    private final Path directory;
+    private final ConfigSourceListeners listeners = new ConfigSourceListeners();
+    private final DirectoryWatcher watcher;
+    private final ThreadPoolExecutor readers;
+
+    private volatile Map<String, Value> values;
+    private volatile boolean closed;
+
+    public DirectoryConfigSource(final File directory) throws IOException
+    {
+        this(directory, new TimeSpan("100ms"));
+    }
+
+    /**
+     * @param debounce How long the directory has to be quiet after a change before it is scanned again.
+     */
+    public DirectoryConfigSource(final File directory, final TimeSpan debounce) throws IOException
+    {
+        this.directory = directory.getAbsoluteFile().toPath();
+        if (!Files.isDirectory(this.directory)) {
+            throw new IOException(String.format("%s is not a directory", directory));
+        }
+        final AtomicInteger count = new AtomicInteger();
+        final String name = directory.getName();
+        this.readers = new ThreadPoolExecutor(READ_THREADS, READ_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            public Thread newThread(final Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, "config-magic-read-" + name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        readers.allowCoreThreadTimeOut(true);
+
+        // Watch before the first scan, so no change made during the scan is missed.
+        this.watcher = new DirectoryWatcher(this.directory, debounce.getMillis(), "config-magic-watch-" + directory.getName(), new Callable<Boolean>() {
+            public Boolean call()
+            {
+                return reload();
+            }
+        });
+        try {
+            this.values = scan();
+        }
+        catch (IOException e) {
+            close();
+            throw e;
+        }
+        watcher.start();
+    }
+
+    public String getString(final String propertyName)
+    {
+        final Value value = values.get(propertyName);
+        return value == null ? null : value.get();
+    }
+
+    public Set<String> getPropertyNames()
+    {
+        return Collections.unmodifiableSet(values.keySet());
+    }
+
+    public void addListener(final ConfigSourceListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    public void removeListener(final ConfigSourceListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Scans the directory again and notifies the listeners if any property changed. Called by the watcher
+     * thread, but can be called at any time.
+     *
+     * @return true if the directory was read, false if it could not be read or the source is closed.
+     */
+    public synchronized boolean reload()
+    {
+        if (closed) {
+            return false;
+        }
+        final Map<String, Value> scanned;
+        try {
+            scanned = scan();
+        }
+        catch (RejectedExecutionException e) {
+            // Closed while scanning.
+            return false;
+        }
+        catch (IOException e) {
+            logger.warn("Could not scan {}, keeping the current properties", directory, e);
+            return false;
+        }
+
+        final Map<String, Value> previous = values;
+        final Set<String> changed = new HashSet<String>();
+        for (Map.Entry<String, Value> entry : previous.entrySet()) {
+            final Value value = scanned.get(entry.getKey());
+            if (value == null || !value.sameAs(entry.getValue())) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String name : scanned.keySet()) {
+            if (!previous.containsKey(name)) {
+                changed.add(name);
+            }
+        }
+        if (!changed.isEmpty()) {
+            values = scanned;
+            listeners.fire(Collections.unmodifiableSet(changed));
+        }
+        return true;
+    }
+
+    /**
+     * Stops watching the directory. The last properties read are still served, {@link #reload()} does nothing.
+     */
+    public void close() throws IOException
+    {
+        closed = true;
+        readers.shutdown();
+        watcher.close();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "DirectoryConfigSource[" + directory + "]";
+    }
+
+    /**
+     * Reads all files and watches all directories found.
+     */
+    private Map<String, Value> scan() throws IOException
+    {
+        final List<Path> files = new ArrayList<Path>();
+        Files.walkFileTree(directory, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) throws IOException
+            {
+                if (dir.equals(directory) || !isHidden(dir)) {
+                    // Before the directory is listed, so no file added after the listing is missed.
+                    watcher.register(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs)
+            {
+                if (attrs.isRegularFile() && !isHidden(file)) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        final Value[] read = new Value[files.size()];
+        // Small files are read right away, in parallel as every read is mostly waiting for the file system.
+        final int tasks = Math.min(read.length, READ_THREADS);
+        final List<Future<Void>> futures = new ArrayList<Future<Void>>(tasks);
+        for (int task = 0; task < tasks; task++) {
+            final int from = task * read.length / tasks;
+            final int to = (task + 1) * read.length / tasks;
+            futures.add(readers.submit(new Callable<Void>() {
+                public Void call() throws IOException
+                {
+                    for (int idx = from; idx < to; idx++) {
+                        read[idx] = Value.read(files.get(idx));
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading " + directory);
+            }
+            catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        final Map<String, Value> result = new HashMap<String, Value>();
+        for (int idx = 0; idx < read.length; idx++) {
+            result.put(propertyName(files.get(idx)), read[idx]);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private String propertyName(final Path file)
+    {
+        final Path relative = directory.relativize(file);
+        final StringBuilder sb = new StringBuilder();
+        for (Path part : relative) {
+            if (sb.length() > 0) {
+                sb.append('.');
+            }
+            sb.append(part.toString());
+        }
+        return sb.toString();
+    }
+
+    private static boolean isHidden(final Path path)
+    {
+        final Path name = path.getFileName();
+        return name != null && name.toString().startsWith(".");
+    }
+
+    /**
+     * The content of one file. Small files are read when the directory is scanned, large ones when they are
+     * first asked for. A large file is read through the real path it had at the scan, so a value never shows
+     * the content of a later <code>..data</code> generation than its size and modification time are from.
+     */
+    private static final class Value
+    {
+        private final Path file;
+        private final long size;
+        private final long lastModified;
+        private volatile String text;
+
+        private Value(final Path file, final long size, final long lastModified, final String text)
+        {
+            this.file = file;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.text = text;
+        }
+
+        private static Value read(final Path file) throws IOException
+        {
+            // Resolved once, so the attributes and the content are from the same file during a symlink swap.
+            final Path real = file.toRealPath();
+            final BasicFileAttributes attrs = Files.readAttributes(real, BasicFileAttributes.class);
+            final long lastModified = attrs.lastModifiedTime().toMillis();
+            if (attrs.size() >= LARGE_FILE_SIZE) {
+                return new Value(real, attrs.size(), lastModified, null);
+            }
+            return new Value(real, attrs.size(), lastModified, decode(ByteBuffer.wrap(Files.readAllBytes(real))));
+        }
+
+        private String get()
+        {
+            String result = text;
+            if (result == null) {
+                try {
+                    final RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r");
+                    try {
+                        final FileChannel channel = raf.getChannel();
+                        result = decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+                    }
+                    finally {
+                        raf.close();
+                    }
+                }
+                catch (IOException e) {
+                    logger.warn("Could not read {}", file, e);
+                    return null;
+                }
+                text = result;
+            }
+            return result;
+        }
+
+        /**
+         * Small files are compared by content, large ones (which may not be read yet) by size and modification time.
+         */
+        private boolean sameAs(final Value other)
+        {
+            if (text != null && other.text != null && size < LARGE_FILE_SIZE && other.size < LARGE_FILE_SIZE) {
+                return text.equals(other.text);
+            }
+            return file.equals(other.file) && size == other.size && lastModified == other.lastModified;
+        }
+
+        private static String decode(final ByteBuffer bytes)
+        {
+            String result = StandardCharsets.UTF_8.decode(bytes).toString();
+            if (result.endsWith("\r\n")) {
+                result = result.substring(0, result.length() - 2);
+            }
+            else if (result.endsWith("\n")) {
+                result = result.substring(0, result.length() - 1);
+            }
+            return result;
+        }
+    }
+}
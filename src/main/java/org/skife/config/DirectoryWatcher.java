@@ -0,0 +1,127 @@
+package org.skife.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a callback on its own daemon thread whenever something in the watched directories changed. Bursts of
+ * events are debounced: the callback runs once no further event arrived for the debounce period. Any event
+ * counts, as atomic updates (a rename over the file, or the <code>..data</code> symlink swap of Kubernetes
+ * volume mounts) show up as events on other names than the one of the file.
+ *
+ * If the callback could not handle the change (it returns false or throws), it runs again after the debounce
+ * period, backing off up to {@value #MAX_RETRY_MILLIS} ms, until it succeeds or the next event arrives.
+ */
+final class DirectoryWatcher implements Closeable
+{
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryWatcher.class);
+
+    static final long MAX_RETRY_MILLIS = 30000;
+
+    private final WatchService watchService;
+    private final long debounceMillis;
+    private final Callable<Boolean> onChange;
+    private final ConcurrentMap<Path, WatchKey> watched = new ConcurrentHashMap<Path, WatchKey>();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Starts watching the directory right away, but only calls back once {@link #start()} was called. Changes
+     * made in between are not lost.
+     *
+     * @param onChange Returns true if the change was handled.
+     */
+    DirectoryWatcher(final Path directory, final long debounceMillis, final String name, final Callable<Boolean> onChange) throws IOException
+    {
+        this.watchService = directory.getFileSystem().newWatchService();
+        this.debounceMillis = Math.max(1, debounceMillis);
+        this.onChange = onChange;
+
+        register(directory);
+
+        this.thread = new Thread(new Runnable() {
+            public void run()
+            {
+                watch();
+            }
+        }, name);
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Watches another directory, unless it is watched already.
+     */
+    void register(final Path directory) throws IOException
+    {
+        final WatchKey current = watched.get(directory);
+        if (current != null && current.isValid()) {
+            return;
+        }
+        watched.put(directory, directory.register(watchService,
+                                                  StandardWatchEventKinds.ENTRY_CREATE,
+                                                  StandardWatchEventKinds.ENTRY_DELETE,
+                                                  StandardWatchEventKinds.ENTRY_MODIFY));
+    }
+
+    void start()
+    {
+        thread.start();
+    }
+
+    public void close() throws IOException
+    {
+        closed = true;
+        thread.interrupt();
+        watchService.close();
+    }
+
+    private void watch()
+    {
+        try {
+            long retryMillis = 0;
+            while (!closed) {
+                WatchKey key = retryMillis == 0 ? watchService.take() : watchService.poll(retryMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    drain(key);
+                    retryMillis = 0;
+                }
+                while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    drain(key);
+                }
+                boolean handled;
+                try {
+                    handled = onChange.call();
+                }
+                catch (Exception e) {
+                    logger.warn("Handling a change failed", e);
+                    handled = false;
+                }
+                retryMillis = handled ? 0 : Math.min(MAX_RETRY_MILLIS, retryMillis == 0 ? debounceMillis : retryMillis * 2);
+            }
+        }
+        catch (InterruptedException e) {
+            // closed
+        }
+        catch (ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private static void drain(final WatchKey key)
+    {
+        key.pollEvents();
+        key.reset();
+    }
+}
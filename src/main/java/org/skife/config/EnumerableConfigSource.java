@@ -0,0 +1,17 @@
+package org.skife.config;
+
+import java.util.Set;
+
+/**
+ * A {@link ConfigSource} that can list the names of all the properties it has. Lets {@link LayeredConfigSource}
+ * work out once which layer provides a property instead of asking every layer on every lookup.
+ *
+ * @since 0.18
+ */
+public interface EnumerableConfigSource extends ConfigSource
+{
+    /**
+     * @return The names of all properties for which {@link #getString(String)} currently returns a value.
+     */
+    Set<String> getPropertyNames();
+}
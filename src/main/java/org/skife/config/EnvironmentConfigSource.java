@@ -0,0 +1,126 @@
+package org.skife.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads properties from environment variables, matching names loosely: <code>.</code>, <code>-</code> and
+ * <code>_</code> are interchangeable and case does not matter, so the property <code>db.pool.max-size</code>
+ * is found in <code>DB_POOL_MAX_SIZE</code>. The variables are indexed by their folded names once, lookups
+ * fold the requested name on the fly while probing and allocate nothing.
+ *
+ * Loose matching is only the fallback: a variable spelled exactly like the requested property always wins. If
+ * several variables fold to the requested name and none of them is spelled exactly like it, the one that comes
+ * first in {@link String#compareTo(String)} order wins, which prefers the upper case spelling.
+ *
+ * @since 0.18
+ */
+public class EnvironmentConfigSource implements ConfigSource
+{
+    private final int[] hashes;
+    private final String[] names;
+    private final String[] values;
+    /** Whether more than one variable folds to the name in the slot. */
+    private final boolean[] collided;
+    /** All variables whose folded name is shared with another variable, by their exact name. */
+    private final Map<String, String> exact = new HashMap<String, String>();
+    private final int mask;
+
+    /**
+     * Indexes the environment of the current process.
+     */
+    public EnvironmentConfigSource()
+    {
+        this(System.getenv());
+    }
+
+    public EnvironmentConfigSource(final Map<String, String> environment)
+    {
+        int capacity = 2;
+        while (capacity < environment.size() * 2) {
+            capacity <<= 1;
+        }
+        this.hashes = new int[capacity];
+        this.names = new String[capacity];
+        this.values = new String[capacity];
+        this.collided = new boolean[capacity];
+        this.mask = capacity - 1;
+
+        // Sorted, so that the first of several variables with the same folded name is the one that stays.
+        for (Map.Entry<String, String> entry : new TreeMap<String, String>(environment).entrySet()) {
+            final String name = entry.getKey();
+            if (entry.getValue() == null) {
+                continue;
+            }
+            final int hash = hash(name);
+            int slot = hash & mask;
+            while (names[slot] != null && !(hashes[slot] == hash && foldedEquals(names[slot], name))) {
+                slot = (slot + 1) & mask;
+            }
+            if (names[slot] == null) {
+                hashes[slot] = hash;
+                names[slot] = name;
+                values[slot] = entry.getValue();
+            }
+            else {
+                collided[slot] = true;
+                exact.put(names[slot], values[slot]);
+                exact.put(name, entry.getValue());
+            }
+        }
+    }
+
+    public String getString(final String propertyName)
+    {
+        if (propertyName == null) {
+            return null;
+        }
+        final int hash = hash(propertyName);
+        int slot = hash & mask;
+        String name;
+        while ((name = names[slot]) != null) {
+            if (hashes[slot] == hash && foldedEquals(name, propertyName)) {
+                if (collided[slot] && !name.equals(propertyName)) {
+                    final String value = exact.get(propertyName);
+                    if (value != null) {
+                        return value;
+                    }
+                }
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static char fold(final char c)
+    {
+        if (c == '.' || c == '-') {
+            return '_';
+        }
+        return Character.toUpperCase(c);
+    }
+
+    private static int hash(final String name)
+    {
+        int h = 0;
+        for (int idx = 0; idx < name.length(); idx++) {
+            h = 31 * h + fold(name.charAt(idx));
+        }
+        return HashIndex.spread(h);
+    }
+
+    private static boolean foldedEquals(final String a, final String b)
+    {
+        if (a.length() != b.length()) {
+            return false;
+        }
+        for (int idx = 0; idx < a.length(); idx++) {
+            if (fold(a.charAt(idx)) != fold(b.charAt(idx))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,156 @@
+package org.skife.config;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads a properties file and reloads it when it changes on disk. The parent directory is watched with a
+ * {@link java.nio.file.WatchService}, so updates that replace the file (an atomic rename, or the symlink swap of
+ * a Kubernetes ConfigMap mount) are seen as well as edits in place. Bursts of events are debounced.
+ *
+ * Every reload reads the whole file into a new {@link SnapshotConfigSource} on the watcher thread and publishes
+ * it with a single volatile write, so lookups never block and never see a half loaded file. If the file can not
+ * be read, the previous properties stay in place. Listeners are told which properties changed.
+ *
+ * @since 0.18
+ */
+public class FileWatchingConfigSource implements ObservableConfigSource, EnumerableConfigSource, Closeable
+{
+    private static final Logger logger = LoggerFactory.getLogger(FileWatchingConfigSource.class);
+
+    private final File file;
+    private final ConfigSourceListeners listeners = new ConfigSourceListeners();
+    private final DirectoryWatcher watcher;
+
+    private volatile SnapshotConfigSource snapshot;
+
+    public FileWatchingConfigSource(final File file) throws IOException
+    {
+        this(file, new TimeSpan("100ms"));
+    }
+
+    /**
+     * @param debounce How long the directory has to be quiet after a change before the file is reloaded.
+     */
+    public FileWatchingConfigSource(final File file, final TimeSpan debounce) throws IOException
+    {
+        this.file = file.getAbsoluteFile();
+        // Watch before the first load, so no change made during the load is missed.
+        this.watcher = new DirectoryWatcher(this.file.getParentFile().toPath(), debounce.getMillis(), "config-magic-watch-" + file.getName(), new Callable<Boolean>() {
+            public Boolean call()
+            {
+                return reload();
+            }
+        });
+        try {
+            this.snapshot = load();
+        }
+        catch (IOException e) {
+            watcher.close();
+            throw e;
+        }
+        watcher.start();
+    }
+
+    public String getString(final String propertyName)
+    {
+        return snapshot.getString(propertyName);
+    }
+
+    public Set<String> getPropertyNames()
+    {
+        return snapshot.getPropertyNames();
+    }
+
+    public void addListener(final ConfigSourceListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    public void removeListener(final ConfigSourceListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reads the file again and notifies the listeners if any property changed. Called by the watcher thread,
+     * but can be called at any time.
+     *
+     * @return true if the file was read.
+     */
+    public synchronized boolean reload()
+    {
+        final SnapshotConfigSource loaded;
+        try {
+            loaded = load();
+        }
+        catch (IOException e) {
+            logger.warn("Could not reload {}, keeping the current properties", file, e);
+            return false;
+        }
+        final Set<String> changed = diff(snapshot, loaded);
+        if (!changed.isEmpty()) {
+            snapshot = loaded;
+            listeners.fire(changed);
+        }
+        return true;
+    }
+
+    /**
+     * Stops watching the file. The last properties read are still served.
+     */
+    public void close() throws IOException
+    {
+        watcher.close();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FileWatchingConfigSource[" + file + "]";
+    }
+
+    private SnapshotConfigSource load() throws IOException
+    {
+        final Properties props = new Properties();
+        final InputStream in = new FileInputStream(file);
+        try {
+            props.load(in);
+        }
+        finally {
+            in.close();
+        }
+        return new SnapshotConfigSource(props);
+    }
+
+    /**
+     * @return The names of the properties that are only in one of the snapshots or have different values.
+     */
+    static Set<String> diff(final EnumerableConfigSource previous, final EnumerableConfigSource current)
+    {
+        final Set<String> changed = new HashSet<String>();
+        for (String name : previous.getPropertyNames()) {
+            final String value = current.getString(name);
+            if (value == null || !value.equals(previous.getString(name))) {
+                changed.add(name);
+            }
+        }
+        for (String name : current.getPropertyNames()) {
+            if (previous.getString(name) == null) {
+                changed.add(name);
+            }
+        }
+        return Collections.unmodifiableSet(changed);
+    }
+}
@@ -0,0 +1,85 @@
+package org.skife.config;
+
+/**
+ * Open addressing (linear probing) index over an array of keys that is owned by the caller.
+ * The table only stores positions into the key array, which keeps the immutable collections built on
+ * top of it at two arrays instead of an entry object per element. Null keys are supported.
+ */
+final class HashIndex
+{
+    /** Position + 1 of the key in the key array, 0 marks a free slot. */
+    private final int[] slots;
+    private final int mask;
+
+    /**
+     * @param expectedSize The maximum number of keys that will be added. The table is kept at most half full.
+     */
+    HashIndex(final int expectedSize)
+    {
+        int capacity = 2;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Adds the key found at the given position of the key array, unless an equal key was already added.
+     *
+     * @return -1 if the key was added, the position of the equal key otherwise.
+     */
+    int add(final Object[] keys, final int position)
+    {
+        final Object key = keys[position];
+        int slot = hash(key) & mask;
+        while (slots[slot] != 0) {
+            final int existing = slots[slot] - 1;
+            if (equal(key, keys[existing])) {
+                return existing;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = position + 1;
+        return -1;
+    }
+
+    /**
+     * @return The position of the key in the key array or -1 if the key was never added.
+     */
+    int indexOf(final Object[] keys, final Object key)
+    {
+        int slot = hash(key) & mask;
+        int position;
+        while ((position = slots[slot]) != 0) {
+            if (equal(key, keys[position - 1])) {
+                return position - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    static int hash(final Object key)
+    {
+        if (key == null) {
+            return 0;
+        }
+        return spread(key.hashCode());
+    }
+
+    /**
+     * Spreads the bits so that hash codes that only differ in the high bits do not cluster in a power of two
+     * sized table. Shared by every in-memory hash table of this library.
+     */
+    static int spread(final int hash)
+    {
+        final int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equal(final Object a, final Object b)
+    {
+        return a == b || (a != null && a.equals(b));
+    }
+}
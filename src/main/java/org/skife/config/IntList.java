@@ -0,0 +1,91 @@
+package org.skife.config;
+
+import java.util.Arrays;
+
+/**
+ * An immutable list of int values. Can be used as the return type of a config method,
+ * in which case the value is parsed straight into the backing array without boxing.
+ *
+ * @since 0.18
+ */
+public final class IntList
+{
+    private static final IntList EMPTY = new IntList(new int[0]);
+
+    private final int[] values;
+
+    /**
+     * Takes ownership of the array, which must not be changed afterwards.
+     */
+    IntList(final int[] values)
+    {
+        this.values = values;
+    }
+
+    public static IntList of(final int... values)
+    {
+        return values.length == 0 ? EMPTY : new IntList(values.clone());
+    }
+
+    public int size()
+    {
+        return values.length;
+    }
+
+    public boolean isEmpty()
+    {
+        return values.length == 0;
+    }
+
+    public int get(final int index)
+    {
+        return values[index];
+    }
+
+    public int indexOf(final int value)
+    {
+        for (int idx = 0; idx < values.length; idx++) {
+            if (values[idx] == value) {
+                return idx;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(final int value)
+    {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * @return a copy of the values in this list.
+     */
+    public int[] toArray()
+    {
+        return values.clone();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return Arrays.equals(values, ((IntList) obj).values);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString(values);
+    }
+}
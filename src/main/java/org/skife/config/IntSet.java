@@ -0,0 +1,125 @@
+package org.skife.config;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of int values. Can be used as the return type of a config method,
+ * in which case the value is parsed straight into the backing array without boxing.
+ *
+ * The values are kept sorted, so lookups are a binary search. If the values are dense enough
+ * (the bitmap is at most twice the size of the sorted array), lookups use a bitmap instead.
+ *
+ * @since 0.18
+ */
+public final class IntSet
+{
+    private static final IntSet EMPTY = new IntSet(new int[0]);
+
+    /** Bits in the bitmap per value in the set before the bitmap is considered too sparse. */
+    private static final long DENSITY = 64L;
+
+    /** Sorted and free of duplicates. */
+    private final int[] values;
+
+    /** Bitmap over [min, max], null if the values are too sparse. */
+    private final long[] bits;
+    private final int min;
+
+    private IntSet(final int[] values)
+    {
+        this.values = values;
+
+        if (values.length == 0) {
+            this.bits = null;
+            this.min = 0;
+        }
+        else {
+            this.min = values[0];
+            final long range = (long) values[values.length - 1] - min + 1;
+            if (range <= values.length * DENSITY) {
+                this.bits = new long[(int) ((range + 63) >>> 6)];
+                for (int value : values) {
+                    final int idx = value - min;
+                    bits[idx >>> 6] |= 1L << idx;
+                }
+            }
+            else {
+                this.bits = null;
+            }
+        }
+    }
+
+    /**
+     * Takes ownership of the array, which gets sorted in place and must not be changed afterwards.
+     */
+    static IntSet copyOf(final int[] values)
+    {
+        if (values.length == 0) {
+            return EMPTY;
+        }
+        Arrays.sort(values);
+        int size = 1;
+        for (int idx = 1; idx < values.length; idx++) {
+            if (values[idx] != values[size - 1]) {
+                values[size++] = values[idx];
+            }
+        }
+        return new IntSet(size == values.length ? values : Arrays.copyOf(values, size));
+    }
+
+    public static IntSet of(final int... values)
+    {
+        return copyOf(values.clone());
+    }
+
+    public int size()
+    {
+        return values.length;
+    }
+
+    public boolean isEmpty()
+    {
+        return values.length == 0;
+    }
+
+    public boolean contains(final int value)
+    {
+        if (bits != null) {
+            final long idx = (long) value - min;
+            return idx >= 0 && idx < ((long) bits.length << 6) && (bits[(int) (idx >>> 6)] & (1L << idx)) != 0;
+        }
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    /**
+     * @return a copy of the values in this set, in ascending order.
+     */
+    public int[] toArray()
+    {
+        return values.clone();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return Arrays.equals(values, ((IntSet) obj).values);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString(values);
+    }
+}
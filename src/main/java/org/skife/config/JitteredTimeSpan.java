@@ -0,0 +1,157 @@
+package org.skife.config;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A time span that hands out a different, uniformly distributed value from a range on every call.
+ * Meant for periodic work that runs on many instances at once (refreshes, polls, ...), so that those
+ * instances do not hit a backend in lockstep.
+ *
+ * Accepts a range like "25s..35s", a {@link TimeSpan} with a relative spread like "30s±10%" (or "30s+-10%"),
+ * a time span with an absolute spread like "30s±5s", or a plain time span like "30s", which does not jitter.
+ * Values are drawn from {@link ThreadLocalRandom}, so concurrent callers never contend.
+ *
+ * @since 0.18
+ */
+public class JitteredTimeSpan
+{
+    private final String spec;
+    private final long minNanos;
+    private final long maxNanos;
+
+    public JitteredTimeSpan(String spec)
+    {
+        this.spec = spec.trim();
+
+        final int range = this.spec.indexOf("..");
+        if (range >= 0) {
+            minNanos = new TimeSpan(this.spec.substring(0, range)).getNanos();
+            maxNanos = new TimeSpan(this.spec.substring(range + 2)).getNanos();
+            if (minNanos > maxNanos) {
+                throw new IllegalArgumentException(String.format("%s is not a valid time range, the lower bound is larger than the upper bound", spec));
+            }
+            return;
+        }
+
+        int spread = this.spec.indexOf('±');
+        int spreadLength = 1;
+        if (spread < 0) {
+            spread = this.spec.indexOf("+-");
+            spreadLength = 2;
+        }
+        if (spread < 0) {
+            minNanos = maxNanos = new TimeSpan(this.spec).getNanos();
+            return;
+        }
+
+        final long base = new TimeSpan(this.spec.substring(0, spread)).getNanos();
+        final String delta = this.spec.substring(spread + spreadLength).trim();
+        final long deltaNanos;
+        if (delta.endsWith("%")) {
+            final double percentage;
+            try {
+                percentage = Double.parseDouble(delta.substring(0, delta.length() - 1).trim());
+            }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException(String.format("%s is not a valid spread in %s", delta, spec), e);
+            }
+            // Written this way round so NaN is rejected as well.
+            if (!(percentage >= 0 && percentage <= 100)) {
+                throw new IllegalArgumentException(String.format("%s is not a valid spread in %s, must be between 0%% and 100%%", delta, spec));
+            }
+            deltaNanos = (long) (base * percentage / 100.0);
+        }
+        else {
+            deltaNanos = Math.min(base, new TimeSpan(delta).getNanos());
+        }
+        minNanos = base - deltaNanos;
+        maxNanos = base > Long.MAX_VALUE - deltaNanos ? Long.MAX_VALUE : base + deltaNanos;
+    }
+
+    public TimeSpan getMin()
+    {
+        return toTimeSpan(minNanos);
+    }
+
+    public TimeSpan getMax()
+    {
+        return toTimeSpan(maxNanos);
+    }
+
+    /**
+     * @return a random value between the lower and the upper bound (both inclusive), in nanoseconds.
+     */
+    public long nextNanos()
+    {
+        if (minNanos == maxNanos) {
+            return minNanos;
+        }
+        if (maxNanos == Long.MAX_VALUE) {
+            return minNanos + ThreadLocalRandom.current().nextLong(maxNanos - minNanos);
+        }
+        return ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1);
+    }
+
+    /**
+     * @return a random value between the lower and the upper bound, in milliseconds.
+     */
+    public long nextMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(nextNanos());
+    }
+
+    public Duration nextDuration()
+    {
+        return Duration.ofNanos(nextNanos());
+    }
+
+    /**
+     * Expresses the bound in the coarsest unit that represents it exactly, so that it prints nicely.
+     */
+    private static TimeSpan toTimeSpan(final long nanos)
+    {
+        for (TimeUnit unit : COARSEST_FIRST) {
+            final long unitNanos = unit.toNanos(1);
+            if (nanos % unitNanos == 0) {
+                return new TimeSpan(nanos / unitNanos, unit);
+            }
+        }
+        return new TimeSpan(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static final TimeUnit[] COARSEST_FIRST = {
+        TimeUnit.DAYS, TimeUnit.HOURS, TimeUnit.MINUTES, TimeUnit.SECONDS, TimeUnit.MILLISECONDS, TimeUnit.MICROSECONDS
+    };
+
+    @Override
+    public String toString()
+    {
+        return spec;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = 31 + (int)(minNanos ^ (minNanos >>> 32));
+        return 31 * result + (int)(maxNanos ^ (maxNanos >>> 32));
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        JitteredTimeSpan other = (JitteredTimeSpan)obj;
+
+        return minNanos == other.minNanos && maxNanos == other.maxNanos;
+    }
+}
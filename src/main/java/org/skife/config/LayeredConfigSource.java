@@ -0,0 +1,235 @@
+package org.skife.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Stacks several config sources, the first one taking precedence, e.g. environment, system properties, service
+ * file, shared file. Instead of asking every layer in turn, the names of all {@link EnumerableConfigSource} layers
+ * are flattened into one table that records which layer provides each property, so a lookup asks that layer
+ * and only those layers above it that cannot be enumerated.
+ *
+ * The table reflects the layers at the time it was built. When the set of property names of a layer changes,
+ * call {@link #layerChanged(int)}; changed values of existing properties are picked up without that. Lookups
+ * never lock: the table is immutable and published with a single volatile write, and the winners that changed
+ * since it was built are kept in a concurrent overlay.
+ *
+ * @since 0.18
+ */
+public class LayeredConfigSource implements ConfigSource
+{
+    private final ConfigSource[] layers;
+
+    /** Positions of the layers that cannot be enumerated, in order of precedence. */
+    private final int[] probed;
+
+    /** Guards {@link #names} and {@link #winners} while the table is updated. */
+    private final Object lock = new Object();
+
+    /** Property names of every enumerable layer as of the last update, null for the other layers. */
+    private final List<Set<String>> names;
+
+    /** Property name to the position of the first enumerable layer that has it. */
+    private final Map<String, Integer> winners = new HashMap<String, Integer>();
+
+    private volatile Resolution resolution;
+
+    /**
+     * @param layers The layers, highest precedence first.
+     */
+    public LayeredConfigSource(final ConfigSource... layers)
+    {
+        this(Arrays.asList(layers));
+    }
+
+    /**
+     * @param layers The layers, highest precedence first.
+     */
+    public LayeredConfigSource(final List<? extends ConfigSource> layers)
+    {
+        this.layers = layers.toArray(new ConfigSource[layers.size()]);
+        this.names = new ArrayList<Set<String>>(this.layers.length);
+
+        int probedCount = 0;
+        final int[] probed = new int[this.layers.length];
+        for (int layer = 0; layer < this.layers.length; layer++) {
+            if (this.layers[layer] == null) {
+                throw new IllegalArgumentException("Layer " + layer + " is null");
+            }
+            if (this.layers[layer] instanceof EnumerableConfigSource) {
+                names.add(new HashSet<String>());
+            }
+            else {
+                names.add(null);
+                probed[probedCount++] = layer;
+            }
+        }
+        this.probed = Arrays.copyOf(probed, probedCount);
+        refresh();
+    }
+
+    public String getString(final String propertyName)
+    {
+        final int winner = resolution.winnerOf(propertyName);
+
+        for (int layer : probed) {
+            if (layer > winner) {
+                break;
+            }
+            final String value = layers[layer].getString(propertyName);
+            if (value != null) {
+                return value;
+            }
+        }
+        if (winner < layers.length) {
+            final String value = layers[winner].getString(propertyName);
+            if (value != null) {
+                return value;
+            }
+            // The property went away since the table was built, ask the layers below.
+            for (int layer = winner + 1; layer < layers.length; layer++) {
+                final String fallback = layers[layer].getString(propertyName);
+                if (fallback != null) {
+                    return fallback;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Updates the table after properties were added to or removed from a layer. Only the names of that layer are
+     * looked at again, which takes time in proportion to the size of the layer. The properties whose winning layer
+     * changed are written into an overlay on top of the table in place, each one becoming visible on its own.
+     * Once the overlay holds more than an eighth of the properties, it is folded into a new table; as that takes
+     * at least n/8 changed properties for a table of n, it adds amortized constant time per changed property.
+     *
+     * @param layer The position of the layer, 0 being the one with the highest precedence.
+     */
+    public void layerChanged(final int layer)
+    {
+        if (layer < 0 || layer >= layers.length) {
+            throw new IndexOutOfBoundsException(String.format("No layer %d, there are %d layers", layer, layers.length));
+        }
+        if (names.get(layer) == null) {
+            // Never part of the table.
+            return;
+        }
+        synchronized (lock) {
+            final Set<String> previous = names.get(layer);
+            final Set<String> current = new HashSet<String>(((EnumerableConfigSource) layers[layer]).getPropertyNames());
+            names.set(layer, current);
+
+            // Property name to its new winning layer, -1 if no enumerable layer has it any more.
+            final Map<String, Integer> changes = new HashMap<String, Integer>();
+            for (String name : previous) {
+                if (!current.contains(name) && winners.get(name) == layer) {
+                    final int next = findLayer(name, layer + 1);
+                    if (next < 0) {
+                        winners.remove(name);
+                    }
+                    else {
+                        winners.put(name, next);
+                    }
+                    changes.put(name, next);
+                }
+            }
+            for (String name : current) {
+                final Integer winner = winners.get(name);
+                if (winner == null || winner > layer) {
+                    winners.put(name, layer);
+                    changes.put(name, layer);
+                }
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+
+            final Resolution table = resolution;
+            if (table.overrides.size() + changes.size() > Math.max(16, table.keys.length / 8)) {
+                resolution = new Resolution(winners);
+            }
+            else {
+                table.overrides.putAll(changes);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the table from the names of all enumerable layers.
+     */
+    public void refresh()
+    {
+        synchronized (lock) {
+            winners.clear();
+            for (int layer = layers.length - 1; layer >= 0; layer--) {
+                if (names.get(layer) != null) {
+                    final Set<String> current = new HashSet<String>(((EnumerableConfigSource) layers[layer]).getPropertyNames());
+                    names.set(layer, current);
+                    for (String name : current) {
+                        winners.put(name, layer);
+                    }
+                }
+            }
+            resolution = new Resolution(winners);
+        }
+    }
+
+    private int findLayer(final String name, final int from)
+    {
+        for (int layer = from; layer < layers.length; layer++) {
+            final Set<String> layerNames = names.get(layer);
+            if (layerNames != null && layerNames.contains(name)) {
+                return layer;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Immutable snapshot of the winners, looked up through a {@link HashIndex}, plus the winners that changed
+     * since the table was built.
+     */
+    private final class Resolution
+    {
+        private final Object[] keys;
+        private final int[] layerOf;
+        private final HashIndex index;
+        /** Property name to its winning layer, -1 if there is none; consulted before the table. */
+        private final ConcurrentMap<String, Integer> overrides = new ConcurrentHashMap<String, Integer>();
+
+        private Resolution(final Map<String, Integer> winners)
+        {
+            this.keys = new Object[winners.size()];
+            this.layerOf = new int[winners.size()];
+            this.index = new HashIndex(winners.size());
+
+            int position = 0;
+            for (Map.Entry<String, Integer> entry : winners.entrySet()) {
+                keys[position] = entry.getKey();
+                layerOf[position] = entry.getValue();
+                index.add(keys, position++);
+            }
+        }
+
+        /**
+         * @return The layer that provides the property, the number of layers if no enumerable layer does.
+         */
+        private int winnerOf(final String propertyName)
+        {
+            final Integer layer = overrides.get(propertyName);
+            if (layer != null) {
+                return layer < 0 ? layers.length : layer;
+            }
+            final int position = index.indexOf(keys, propertyName);
+            return position < 0 ? layers.length : layerOf[position];
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.skife.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a <code>List</code> or <code>Collection</code> config method whose elements should only be coerced
+ * when they are accessed. The value is split once when the config object is built, but the returned read-only
+ * list only keeps the value and the token boundaries; each access coerces the element again. Meant for very
+ * large, rarely iterated lists. Note that invalid elements are only reported when they are accessed. Like all
+ * other coercions, element coercions by custom coercers of one factory run one at a time, so coercers need not be
+ * thread-safe. Lists of Strings and boxed primitives are coerced without that lock.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface LazyList
+{
+}
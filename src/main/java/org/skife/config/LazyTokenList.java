@@ -0,0 +1,59 @@
+package org.skife.config;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list view over the tokens of a config value. Only the token boundaries are kept,
+ * elements are coerced on every access. Used for {@link LazyList} methods.
+ *
+ * Elements are coerced while holding the lock of the {@link Bully} that built the list, so coercers
+ * are never called concurrently, same as for every other coercion. The built-in String and number
+ * coercers are stateless, so lists of those are built without a lock and coerce without blocking.
+ */
+final class LazyTokenList<E> extends AbstractList<E> implements RandomAccess
+{
+    private final String value;
+    private final Coercer<?> coercer;
+    /** Null if the coercer is safe to call concurrently. */
+    private final Object lock;
+
+    /** Start and end index of each token, interleaved. */
+    private final int[] bounds;
+
+    LazyTokenList(final String value, final Coercer<?> coercer, final ValueTokenizer tokenizer, final Object lock)
+    {
+        this.value = value;
+        this.coercer = coercer;
+        this.lock = lock;
+
+        final int size = value.length() == 0 ? 0 : tokenizer.count();
+        this.bounds = new int[size * 2];
+        for (int idx = 0; idx < size && tokenizer.next(); idx++) {
+            bounds[idx * 2] = tokenizer.start();
+            bounds[idx * 2 + 1] = tokenizer.end();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(final int index)
+    {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        final String token = value.substring(bounds[index * 2], bounds[index * 2 + 1]);
+        if (lock == null) {
+            return (E) coercer.coerce(token);
+        }
+        synchronized (lock) {
+            return (E) coercer.coerce(token);
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return bounds.length / 2;
+    }
+}
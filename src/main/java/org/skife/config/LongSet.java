@@ -0,0 +1,126 @@
+package org.skife.config;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of long values. Can be used as the return type of a config method,
+ * in which case the value is parsed straight into the backing array without boxing.
+ *
+ * The values are kept sorted, so lookups are a binary search. If the values are dense enough
+ * (the bitmap is no larger than the sorted array of 64 bit values), lookups use a bitmap instead.
+ *
+ * @since 0.18
+ */
+public final class LongSet
+{
+    private static final LongSet EMPTY = new LongSet(new long[0]);
+
+    /** Bits in the bitmap per value in the set before the bitmap is considered too sparse. */
+    private static final long DENSITY = 64L;
+
+    /** Sorted and free of duplicates. */
+    private final long[] values;
+
+    /** Bitmap over [min, max], null if the values are too sparse. */
+    private final long[] bits;
+    private final long min;
+
+    private LongSet(final long[] values)
+    {
+        this.values = values;
+
+        if (values.length == 0) {
+            this.bits = null;
+            this.min = 0;
+        }
+        else {
+            this.min = values[0];
+            final long range = values[values.length - 1] - min + 1;
+            // A non-positive range means that max - min overflowed.
+            if (range > 0 && range <= values.length * DENSITY) {
+                this.bits = new long[(int) ((range + 63) >>> 6)];
+                for (long value : values) {
+                    final int idx = (int) (value - min);
+                    bits[idx >>> 6] |= 1L << idx;
+                }
+            }
+            else {
+                this.bits = null;
+            }
+        }
+    }
+
+    /**
+     * Takes ownership of the array, which gets sorted in place and must not be changed afterwards.
+     */
+    static LongSet copyOf(final long[] values)
+    {
+        if (values.length == 0) {
+            return EMPTY;
+        }
+        Arrays.sort(values);
+        int size = 1;
+        for (int idx = 1; idx < values.length; idx++) {
+            if (values[idx] != values[size - 1]) {
+                values[size++] = values[idx];
+            }
+        }
+        return new LongSet(size == values.length ? values : Arrays.copyOf(values, size));
+    }
+
+    public static LongSet of(final long... values)
+    {
+        return copyOf(values.clone());
+    }
+
+    public int size()
+    {
+        return values.length;
+    }
+
+    public boolean isEmpty()
+    {
+        return values.length == 0;
+    }
+
+    public boolean contains(final long value)
+    {
+        if (bits != null) {
+            final long idx = value - min;
+            return value >= min && idx >= 0 && idx < ((long) bits.length << 6) && (bits[(int) (idx >>> 6)] & (1L << idx)) != 0;
+        }
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    /**
+     * @return a copy of the values in this set, in ascending order.
+     */
+    public long[] toArray()
+    {
+        return values.clone();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return Arrays.equals(values, ((LongSet) obj).values);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString(values);
+    }
+}
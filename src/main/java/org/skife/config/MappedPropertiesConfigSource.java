@@ -0,0 +1,331 @@
+package org.skife.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads properties straight out of a memory mapped properties file, for files that are too large to go
+ * through {@link java.util.Properties#load(java.io.InputStream)}. The file is indexed on the first lookup;
+ * the index only holds the hash and the offsets of every key. Values are decoded when they are asked for
+ * and the decoded values are cached, so the heap used grows with the number of keys read, not with the
+ * size of the file.
+ *
+ * The file is read with the same rules as <code>Properties.load(InputStream)</code>: ISO-8859-1 encoded,
+ * <code>#</code> and <code>!</code> comments, line continuations, <code>\\uxxxx</code> escapes, and the
+ * last of several entries for the same key wins. The file must not change while it is mapped.
+ *
+ * @since 0.18
+ */
+public class MappedPropertiesConfigSource implements EnumerableConfigSource
+{
+    private static final int END = PropertiesLineDecoder.END;
+
+    private final File file;
+    private final ByteBuffer buffer;
+    private final ConcurrentMap<String, String> values = new ConcurrentHashMap<String, String>();
+
+    private volatile Index index;
+
+    public MappedPropertiesConfigSource(final File file) throws IOException
+    {
+        this.file = file;
+
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = raf.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(String.format("%s is too large to be mapped", file));
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        finally {
+            raf.close();
+        }
+    }
+
+    public String getString(final String propertyName)
+    {
+        if (propertyName == null) {
+            return null;
+        }
+        final String cached = values.get(propertyName);
+        if (cached != null) {
+            return cached;
+        }
+
+        final Index index = getIndex();
+        final int hash = HashIndex.spread(propertyName.hashCode());
+        final Cursor cursor = new Cursor(buffer);
+        int slot = hash & index.mask;
+        int entry;
+        while ((entry = index.slots[slot]) != 0) {
+            entry--;
+            if (index.hashes[entry] == hash && keyEquals(cursor, index.keyStarts[entry], propertyName)) {
+                final String value = decodeValue(cursor, index.valueStarts[entry]);
+                final String existing = values.putIfAbsent(propertyName, value);
+                return existing == null ? value : existing;
+            }
+            slot = (slot + 1) & index.mask;
+        }
+        return null;
+    }
+
+    /**
+     * Decodes all keys of the file; meant for occasional use, not for every lookup.
+     */
+    public Set<String> getPropertyNames()
+    {
+        final Index index = getIndex();
+        final Cursor cursor = new Cursor(buffer);
+        final Set<String> names = new HashSet<String>(index.size * 2);
+        final StringBuilder sb = new StringBuilder();
+        for (int entry : index.slots) {
+            if (entry != 0) {
+                cursor.pos = index.keyStarts[entry - 1];
+                sb.setLength(0);
+                int ch;
+                while ((ch = cursor.next()) != END && (cursor.escaped || !PropertiesLineDecoder.isKeyTerminator(ch))) {
+                    sb.append((char) ch);
+                }
+                names.add(sb.toString());
+            }
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * @return The number of distinct keys in the file. Builds the index if that did not happen yet.
+     */
+    public int size()
+    {
+        return getIndex().size;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MappedPropertiesConfigSource[" + file + "]";
+    }
+
+    private Index getIndex()
+    {
+        Index result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    result = buildIndex();
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Index buildIndex()
+    {
+        final int limit = buffer.limit();
+        final Cursor cursor = new Cursor(buffer);
+
+        int count = 0;
+        int[] hashes = new int[64];
+        int[] keyStarts = new int[64];
+        int[] valueStarts = new int[64];
+
+        int pos = 0;
+        while (pos < limit) {
+            // Skip blank lines and the leading whitespace of a natural line.
+            final int c = buffer.get(pos) & 0xff;
+            if (c == ' ' || c == '\t' || c == '\f' || c == '\r' || c == '\n') {
+                pos++;
+                continue;
+            }
+            if (c == '#' || c == '!') {
+                while (pos < limit && !PropertiesLineDecoder.isLineEnd(buffer.get(pos) & 0xff)) {
+                    pos++;
+                }
+                continue;
+            }
+
+            final int keyStart = pos;
+            cursor.pos = pos;
+            int hash = 0;
+            boolean hasSeparator = false;
+            int ch;
+            while ((ch = cursor.next()) != END) {
+                if (!cursor.escaped && PropertiesLineDecoder.isKeyTerminator(ch)) {
+                    hasSeparator = ch == '=' || ch == ':';
+                    break;
+                }
+                hash = 31 * hash + ch;
+            }
+
+            // Whitespace around the separator is not part of the value, and a single '=' or ':' may follow
+            // whitespace that ended the key.
+            int valueStart = cursor.pos;
+            if (ch != END) {
+                while ((ch = cursor.next()) != END && !cursor.escaped) {
+                    if (ch == ' ' || ch == '\t' || ch == '\f') {
+                        valueStart = cursor.pos;
+                    }
+                    else if (!hasSeparator && (ch == '=' || ch == ':')) {
+                        hasSeparator = true;
+                        valueStart = cursor.pos;
+                    }
+                    else {
+                        break;
+                    }
+                }
+                if (ch == END) {
+                    valueStart = cursor.pos;
+                }
+                while (ch != END) {
+                    ch = cursor.next();
+                }
+            }
+            pos = cursor.pos;
+
+            if (count == hashes.length) {
+                hashes = Arrays.copyOf(hashes, count * 2);
+                keyStarts = Arrays.copyOf(keyStarts, count * 2);
+                valueStarts = Arrays.copyOf(valueStarts, count * 2);
+            }
+            hashes[count] = HashIndex.spread(hash);
+            keyStarts[count] = keyStart;
+            valueStarts[count] = valueStart;
+            count++;
+        }
+
+        int capacity = 2;
+        while (capacity < count * 2) {
+            capacity <<= 1;
+        }
+        final int mask = capacity - 1;
+        final int[] slots = new int[capacity];
+        final Cursor other = new Cursor(buffer);
+        int size = 0;
+        for (int entry = 0; entry < count; entry++) {
+            int slot = hashes[entry] & mask;
+            int existing;
+            while ((existing = slots[slot]) != 0) {
+                existing--;
+                if (hashes[existing] == hashes[entry] && keysEqual(cursor, keyStarts[existing], other, keyStarts[entry])) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (slots[slot] == 0) {
+                size++;
+            }
+            // Later entries replace earlier ones, same as Properties.load().
+            slots[slot] = entry + 1;
+        }
+        return new Index(slots, mask, hashes, keyStarts, valueStarts, size);
+    }
+
+    private static boolean keyEquals(final Cursor cursor, final int keyStart, final String key)
+    {
+        cursor.pos = keyStart;
+        for (int idx = 0; idx < key.length(); idx++) {
+            final int ch = cursor.next();
+            if (ch == END || ch != key.charAt(idx) || (!cursor.escaped && PropertiesLineDecoder.isKeyTerminator(ch))) {
+                return false;
+            }
+        }
+        final int ch = cursor.next();
+        return ch == END || (!cursor.escaped && PropertiesLineDecoder.isKeyTerminator(ch));
+    }
+
+    private static boolean keysEqual(final Cursor a, final int aStart, final Cursor b, final int bStart)
+    {
+        a.pos = aStart;
+        b.pos = bStart;
+        while (true) {
+            int ca = a.next();
+            if (ca != END && !a.escaped && PropertiesLineDecoder.isKeyTerminator(ca)) {
+                ca = END;
+            }
+            int cb = b.next();
+            if (cb != END && !b.escaped && PropertiesLineDecoder.isKeyTerminator(cb)) {
+                cb = END;
+            }
+            if (ca != cb) {
+                return false;
+            }
+            if (ca == END) {
+                return true;
+            }
+        }
+    }
+
+    private static String decodeValue(final Cursor cursor, final int valueStart)
+    {
+        cursor.pos = valueStart;
+        final StringBuilder sb = new StringBuilder();
+        int ch;
+        while ((ch = cursor.next()) != END) {
+            sb.append((char) ch);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Feeds the bytes of the mapped file to the shared decoder.
+     * Only uses absolute reads on the shared buffer, so every thread can have its own cursor.
+     */
+    private static final class Cursor extends PropertiesLineDecoder<RuntimeException>
+    {
+        private final ByteBuffer buffer;
+        private final int limit;
+
+        private int pos;
+
+        private Cursor(final ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+        }
+
+        @Override
+        int peek()
+        {
+            return pos < limit ? buffer.get(pos) & 0xff : END;
+        }
+
+        @Override
+        void advance()
+        {
+            pos++;
+        }
+    }
+
+    private static final class Index
+    {
+        /** Entry + 1, 0 marks a free slot. */
+        private final int[] slots;
+        private final int mask;
+        private final int[] hashes;
+        private final int[] keyStarts;
+        private final int[] valueStarts;
+        private final int size;
+
+        private Index(final int[] slots, final int mask, final int[] hashes, final int[] keyStarts, final int[] valueStarts, final int size)
+        {
+            this.slots = slots;
+            this.mask = mask;
+            this.hashes = hashes;
+            this.keyStarts = keyStarts;
+            this.valueStarts = valueStarts;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.skife.config;
+
+/**
+ * A {@link ConfigSource} whose properties can change while it is used, and that tells listeners about it.
+ *
+ * @since 0.18
+ */
+public interface ObservableConfigSource extends ConfigSource
+{
+    void addListener(ConfigSourceListener listener);
+
+    void removeListener(ConfigSourceListener listener);
+}
@@ -0,0 +1,186 @@
+package org.skife.config;
+
+/**
+ * Parses separated values straight into primitive arrays. The tokens are never turned into Strings
+ * or wrapper objects for the integral types; floating point values still go through
+ * {@link Double#parseDouble(String)} resp. {@link Float#parseFloat(String)} to keep their exact semantics.
+ *
+ * Accepts exactly the same input as the boxed coercers in {@link DefaultCoercibles} and fails with the
+ * same exceptions. That includes multiples of the processors like "2xcpus" for int values.
+ */
+final class PrimitiveArrays
+{
+    private PrimitiveArrays()
+    {
+    }
+
+    static boolean supports(final Class<?> elemType)
+    {
+        return elemType.isPrimitive() && elemType != char.class && elemType != void.class;
+    }
+
+    static Object parse(final Class<?> elemType, final ValueTokenizer tokenizer)
+    {
+        final int size = tokenizer.count();
+
+        if (elemType == int.class) {
+            final int[] result = new int[size];
+            for (int idx = 0; idx < size && tokenizer.next(); idx++) {
+                result[idx] = parseInt(tokenizer.getValue(), tokenizer.start(), tokenizer.end());
+            }
+            return result;
+        }
+        else if (elemType == long.class) {
+            final long[] result = new long[size];
+            for (int idx = 0; idx < size && tokenizer.next(); idx++) {
+                result[idx] = parseLong(tokenizer.getValue(), tokenizer.start(), tokenizer.end());
+            }
+            return result;
+        }
+        else if (elemType == double.class) {
+            final double[] result = new double[size];
+            for (int idx = 0; idx < size && tokenizer.next(); idx++) {
+                result[idx] = Double.parseDouble(tokenizer.token());
+            }
+            return result;
+        }
+        else if (elemType == float.class) {
+            final float[] result = new float[size];
+            for (int idx = 0; idx < size && tokenizer.next(); idx++) {
+                result[idx] = Float.parseFloat(tokenizer.token());
+            }
+            return result;
+        }
+        else if (elemType == short.class) {
+            final short[] result = new short[size];
+            for (int idx = 0; idx < size && tokenizer.next(); idx++) {
+                result[idx] = parseShort(tokenizer.getValue(), tokenizer.start(), tokenizer.end());
+            }
+            return result;
+        }
+        else if (elemType == byte.class) {
+            final byte[] result = new byte[size];
+            for (int idx = 0; idx < size && tokenizer.next(); idx++) {
+                result[idx] = parseByte(tokenizer.getValue(), tokenizer.start(), tokenizer.end());
+            }
+            return result;
+        }
+        else if (elemType == boolean.class) {
+            final boolean[] result = new boolean[size];
+            for (int idx = 0; idx < size && tokenizer.next(); idx++) {
+                result[idx] = parseBoolean(tokenizer.getValue(), tokenizer.start(), tokenizer.end());
+            }
+            return result;
+        }
+        throw new IllegalStateException(String.format("Don't know how to handle a '%s' array for value '%s'", elemType, tokenizer.getValue()));
+    }
+
+    static int parseInt(final CharSequence value, final int start, final int end)
+    {
+        final long result = parse(value, start, end, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        if (result == FAILED) {
+            final String token = value.subSequence(start, end).toString();
+            if (DefaultCoercibles.isCpuMultiple(token)) {
+                // Same as for Integer values.
+                return ResourceLimits.DEFAULT.parseCpuRelative(token);
+            }
+            // Let the JDK raise the exception so that the message is the familiar one.
+            return Integer.parseInt(token);
+        }
+        return (int) result;
+    }
+
+    static long parseLong(final CharSequence value, final int start, final int end)
+    {
+        final long result = parse(value, start, end, Long.MIN_VALUE, Long.MAX_VALUE);
+        if (result == FAILED) {
+            // Either invalid or really Long.MIN_VALUE, the JDK sorts that out.
+            return Long.parseLong(value.subSequence(start, end).toString());
+        }
+        return result;
+    }
+
+    static short parseShort(final CharSequence value, final int start, final int end)
+    {
+        final long result = parse(value, start, end, Short.MIN_VALUE, Short.MAX_VALUE);
+        if (result == FAILED) {
+            return Short.parseShort(value.subSequence(start, end).toString());
+        }
+        return (short) result;
+    }
+
+    static byte parseByte(final CharSequence value, final int start, final int end)
+    {
+        final long result = parse(value, start, end, Byte.MIN_VALUE, Byte.MAX_VALUE);
+        if (result == FAILED) {
+            return Byte.parseByte(value.subSequence(start, end).toString());
+        }
+        return (byte) result;
+    }
+
+    /**
+     * Same as <code>Boolean.valueOf(value.trim())</code>.
+     */
+    static boolean parseBoolean(final CharSequence value, int start, int end)
+    {
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (end - start != 4) {
+            return false;
+        }
+        final char t = value.charAt(start);
+        final char r = value.charAt(start + 1);
+        final char u = value.charAt(start + 2);
+        final char e = value.charAt(start + 3);
+        return (t == 't' || t == 'T') && (r == 'r' || r == 'R') && (u == 'u' || u == 'U') && (e == 'e' || e == 'E');
+    }
+
+    /** Marker for a failed parse. Collides with Long.MIN_VALUE, which {@link #parseLong} double checks. */
+    private static final long FAILED = Long.MIN_VALUE;
+
+    /**
+     * The same accumulation the JDK uses in <code>Long.parseLong</code>, bounded by the given range.
+     */
+    private static long parse(final CharSequence value, final int start, final int end, final long min, final long max)
+    {
+        if (start >= end) {
+            return FAILED;
+        }
+        int idx = start;
+        boolean negative = false;
+        long limit = -max;
+
+        final char first = value.charAt(idx);
+        if (first < '0') {
+            if (first == '-') {
+                negative = true;
+                limit = min;
+            }
+            else if (first != '+') {
+                return FAILED;
+            }
+            if (++idx == end) {
+                return FAILED;
+            }
+        }
+
+        final long multmin = limit / 10;
+        long result = 0;
+        while (idx < end) {
+            final int digit = Character.digit(value.charAt(idx++), 10);
+            if (digit < 0 || result < multmin) {
+                return FAILED;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return FAILED;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+}
@@ -0,0 +1,103 @@
+package org.skife.config;
+
+/**
+ * Decodes the characters of one logical line of a properties file with the rules of
+ * {@link java.util.Properties#load(java.io.Reader)}: line continuations, the <code>\t \r \n \f</code>
+ * escapes, <code>\\uxxxx</code> escapes and a dropped backslash at the very end of the input. Shared by
+ * {@link SelectivePropertiesReader} and {@link MappedPropertiesConfigSource}, so both read a file exactly
+ * like <code>Properties</code> does; subclasses only say where the characters come from.
+ *
+ * @param <X> What reading a character can throw, {@link RuntimeException} if nothing checked.
+ */
+abstract class PropertiesLineDecoder<X extends Exception>
+{
+    static final int END = -1;
+
+    /** Whether the last character returned by {@link #next()} came from an escape sequence. */
+    boolean escaped;
+
+    /**
+     * @return The character at the current position, {@link #END} at the end of the input.
+     */
+    abstract int peek() throws X;
+
+    /**
+     * Moves past the character at the current position.
+     */
+    abstract void advance();
+
+    /**
+     * @return The next character of the logical line, {@link #END} at its end. The position is left at the
+     *         line terminator in that case.
+     */
+    final int next() throws X
+    {
+        while (true) {
+            final int c = peek();
+            if (c == END || isLineEnd(c)) {
+                return END;
+            }
+            advance();
+            if (c != '\\') {
+                escaped = false;
+                return c;
+            }
+            final int n = peek();
+            if (n == END) {
+                // A backslash at the very end of the input is dropped.
+                return END;
+            }
+            advance();
+            if (isLineEnd(n)) {
+                if (n == '\r' && peek() == '\n') {
+                    advance();
+                }
+                int w;
+                while ((w = peek()) == ' ' || w == '\t' || w == '\f') {
+                    advance();
+                }
+                continue;
+            }
+            escaped = true;
+            switch (n) {
+                case 't':
+                    return '\t';
+                case 'r':
+                    return '\r';
+                case 'n':
+                    return '\n';
+                case 'f':
+                    return '\f';
+                case 'u':
+                    return unicode();
+                default:
+                    return n;
+            }
+        }
+    }
+
+    private int unicode() throws X
+    {
+        int value = 0;
+        for (int idx = 0; idx < 4; idx++) {
+            final int c = peek();
+            final int digit = c == END ? -1 : Character.digit((char) c, 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+            }
+            advance();
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    static boolean isKeyTerminator(final int c)
+    {
+        return c == '=' || c == ':' || c == ' ' || c == '\t' || c == '\f';
+    }
+
+    static boolean isLineEnd(final int c)
+    {
+        return c == '\n' || c == '\r';
+    }
+}
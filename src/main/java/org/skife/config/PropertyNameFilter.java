@@ -0,0 +1,179 @@
+package org.skife.config;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The set of property names a group of config classes can ask for. Names from {@link Config} annotations are
+ * matched exactly; every <code>${...}</code> token in a name (a {@link Param} or a replacement) matches any
+ * sequence of characters. Used by {@link SelectivePropertiesReader} to skip all other properties while parsing.
+ *
+ * Names are checked as {@link CharSequence}s, so a rejected name never has to be turned into a String.
+ *
+ * @since 0.18
+ */
+public final class PropertyNameFilter
+{
+    private final String[] exact;
+    private final int[] hashes;
+    private final int mask;
+    /** Literal parts of every name with tokens; the wildcards sit between them. */
+    private final String[][] patterns;
+
+    private PropertyNameFilter(final Collection<String> names)
+    {
+        final List<String> exactNames = new ArrayList<String>();
+        final List<String[]> patternList = new ArrayList<String[]>();
+        for (String name : names) {
+            final String[] parts = split(name);
+            if (parts == null) {
+                exactNames.add(name);
+            }
+            else {
+                patternList.add(parts);
+            }
+        }
+
+        int capacity = 2;
+        while (capacity < exactNames.size() * 2) {
+            capacity <<= 1;
+        }
+        this.exact = new String[capacity];
+        this.hashes = new int[capacity];
+        this.mask = capacity - 1;
+        for (String name : exactNames) {
+            final int hash = HashIndex.spread(name.hashCode());
+            int slot = hash & mask;
+            while (exact[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            exact[slot] = name;
+            hashes[slot] = hash;
+        }
+        this.patterns = patternList.toArray(new String[patternList.size()][]);
+    }
+
+    /**
+     * Collects the names from all {@link Config} annotations on the public methods of the given classes.
+     */
+    public static PropertyNameFilter forConfigClasses(final Class<?>... configClasses)
+    {
+        final Set<String> names = new LinkedHashSet<String>();
+        for (Class<?> configClass : configClasses) {
+            for (Method method : configClass.getMethods()) {
+                final Config annotation = method.getAnnotation(Config.class);
+                if (annotation != null) {
+                    names.addAll(Arrays.asList(annotation.value()));
+                }
+            }
+        }
+        return new PropertyNameFilter(names);
+    }
+
+    /**
+     * @param names Property names, may contain <code>${...}</code> wildcards.
+     */
+    public static PropertyNameFilter of(final String... names)
+    {
+        return new PropertyNameFilter(new LinkedHashSet<String>(Arrays.asList(names)));
+    }
+
+    public boolean accepts(final CharSequence name)
+    {
+        int hash = 0;
+        for (int idx = 0; idx < name.length(); idx++) {
+            hash = 31 * hash + name.charAt(idx);
+        }
+        hash = HashIndex.spread(hash);
+        int slot = hash & mask;
+        String candidate;
+        while ((candidate = exact[slot]) != null) {
+            if (hashes[slot] == hash && candidate.contentEquals(name)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        for (String[] parts : patterns) {
+            if (matches(name, parts)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The first part must be a prefix, the last one a suffix and the ones in between must follow each other.
+     * Matching every part at its leftmost position is enough because the wildcards match anything.
+     */
+    private static boolean matches(final CharSequence name, final String[] parts)
+    {
+        final String first = parts[0];
+        final String last = parts[parts.length - 1];
+        if (name.length() < first.length() + last.length() || !regionMatches(name, 0, first) || !regionMatches(name, name.length() - last.length(), last)) {
+            return false;
+        }
+        int position = first.length();
+        final int end = name.length() - last.length();
+        for (int idx = 1; idx < parts.length - 1; idx++) {
+            position = indexOf(name, parts[idx], position, end);
+            if (position < 0) {
+                return false;
+            }
+            position += parts[idx].length();
+        }
+        return true;
+    }
+
+    private static boolean regionMatches(final CharSequence name, final int offset, final String part)
+    {
+        for (int idx = 0; idx < part.length(); idx++) {
+            if (name.charAt(offset + idx) != part.charAt(idx)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(final CharSequence name, final String part, final int from, final int end)
+    {
+        for (int position = from; position + part.length() <= end; position++) {
+            if (regionMatches(name, position, part)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The literal parts around the <code>${...}</code> tokens, or null if the name has none.
+     */
+    private static String[] split(final String name)
+    {
+        int open = name.indexOf("${");
+        if (open < 0) {
+            return null;
+        }
+        final List<String> parts = new ArrayList<String>();
+        int position = 0;
+        while (open >= 0) {
+            final int close = name.indexOf('}', open + 2);
+            if (close < 0) {
+                break;
+            }
+            parts.add(name.substring(position, open));
+            position = close + 1;
+            open = name.indexOf("${", position);
+        }
+        if (parts.isEmpty()) {
+            return null;
+        }
+        parts.add(name.substring(position));
+        return parts.toArray(new String[parts.size()]);
+    }
+}
@@ -0,0 +1,248 @@
+package org.skife.config;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves properties from a slow backend, like a remote config service, without ever making a caller wait for
+ * it once the backend has been read. All properties are fetched in bulk on a background thread at a fixed
+ * interval; lookups only read the last snapshot that was fetched successfully, which keeps being served while
+ * a refresh is running or the backend is down.
+ *
+ * Until the first bulk fetch succeeded, lookups go to the backend one property at a time. Concurrent lookups of
+ * the same property share one fetch, and the number of fetches running at the same time is capped. A failed
+ * fetch is remembered for {@value #FAILURE_RETRY_MILLIS} ms, during which lookups of that property return null
+ * right away instead of going to the backend again.
+ *
+ * @since 0.18
+ */
+public class RefreshingConfigSource implements ConfigSource, Closeable
+{
+    private static final Logger logger = LoggerFactory.getLogger(RefreshingConfigSource.class);
+
+    /** Cached for properties the backend does not have; compared by identity. */
+    private static final String MISSING = new String("<missing>");
+
+    static final long FAILURE_RETRY_MILLIS = 1000;
+
+    /**
+     * Where the properties come from. Both methods may block and may fail.
+     */
+    public interface Backend
+    {
+        /**
+         * @return All properties the backend has.
+         */
+        Map<String, String> fetchAll() throws Exception;
+
+        /**
+         * @return The value of a single property, null if the backend does not have it.
+         */
+        String fetch(String propertyName) throws Exception;
+    }
+
+    private final Backend backend;
+    private final Semaphore fetchPermits;
+    private final ScheduledExecutorService scheduler;
+    /** Held for a whole refresh, so a slow fetch can not replace the snapshot of a later one. */
+    private final Object refreshLock = new Object();
+
+    private volatile Map<String, String> snapshot;
+    private volatile long lastRefreshNanos;
+
+    /** Properties fetched one by one before the first snapshot arrived. */
+    private final ConcurrentMap<String, String> fetched = new ConcurrentHashMap<String, String>();
+    private final ConcurrentMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<String, CompletableFuture<String>>();
+    /** When properties whose fetch failed may be fetched again, in {@link System#nanoTime()}. */
+    private final ConcurrentMap<String, Long> failedUntil = new ConcurrentHashMap<String, Long>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * Fetches all properties in the background, right away and then again every refresh interval. The
+     * constructor does not wait for the backend.
+     *
+     * @param maxConcurrentFetches How many single property fetches may run at the same time before the first
+     *                             snapshot arrived.
+     */
+    public RefreshingConfigSource(final Backend backend, final TimeSpan refreshInterval, final int maxConcurrentFetches)
+    {
+        if (maxConcurrentFetches < 1) {
+            throw new IllegalArgumentException("maxConcurrentFetches must be at least 1");
+        }
+        this.backend = backend;
+        this.fetchPermits = new Semaphore(maxConcurrentFetches);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(final Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, "config-magic-refresh");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        final long interval = Math.max(1, refreshInterval.getMillis());
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            public void run()
+            {
+                refresh();
+            }
+        }, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public String getString(final String propertyName)
+    {
+        final Map<String, String> current = snapshot;
+        if (current != null) {
+            hits.increment();
+            return current.get(propertyName);
+        }
+
+        final String cached = fetched.get(propertyName);
+        if (cached != null) {
+            hits.increment();
+            return cached == MISSING ? null : cached;
+        }
+        final Long retryAt = failedUntil.get(propertyName);
+        if (retryAt != null && System.nanoTime() - retryAt < 0) {
+            hits.increment();
+            return null;
+        }
+        misses.increment();
+        return fetchOnce(propertyName);
+    }
+
+    /**
+     * Fetches all properties now, on the calling thread. Called by the background thread at the refresh
+     * interval; a failure is logged and the previous snapshot stays in place. Refreshes run one at a time, a
+     * call waits for the refresh that is running and then fetches again.
+     *
+     * @return true if the properties were fetched.
+     */
+    public boolean refresh()
+    {
+        synchronized (refreshLock) {
+            try {
+                // The values may be as old as the start of the fetch.
+                final long startNanos = System.nanoTime();
+                final Map<String, String> values = backend.fetchAll();
+                if (values == null) {
+                    throw new IllegalStateException("Backend returned no properties");
+                }
+                lastRefreshNanos = startNanos;
+                snapshot = Collections.unmodifiableMap(new HashMap<String, String>(values));
+                refreshes.increment();
+                fetched.clear();
+                failedUntil.clear();
+                return true;
+            }
+            catch (Exception e) {
+                failures.increment();
+                logger.warn("Could not refresh properties, serving the last known ones", e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return How many lookups were answered without going to the backend.
+     */
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    /**
+     * @return How many lookups had to go to the backend.
+     */
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * @return How many bulk fetches succeeded.
+     */
+    public long getRefreshes()
+    {
+        return refreshes.sum();
+    }
+
+    /**
+     * @return How many fetches, bulk or single, failed.
+     */
+    public long getFailures()
+    {
+        return failures.sum();
+    }
+
+    /**
+     * @return How long ago the snapshot that is served was fetched, -1 if no bulk fetch succeeded yet.
+     */
+    public long getStaleness(final TimeUnit unit)
+    {
+        if (snapshot == null) {
+            return -1;
+        }
+        return unit.convert(System.nanoTime() - lastRefreshNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops the background refresh. The last snapshot is still served.
+     */
+    public void close()
+    {
+        scheduler.shutdownNow();
+    }
+
+    private String fetchOnce(final String propertyName)
+    {
+        final CompletableFuture<String> future = new CompletableFuture<String>();
+        final CompletableFuture<String> running = inFlight.putIfAbsent(propertyName, future);
+        if (running != null) {
+            return running.join();
+        }
+
+        try {
+            fetchPermits.acquireUninterruptibly();
+            try {
+                final String value = backend.fetch(propertyName);
+                if (snapshot == null) {
+                    fetched.put(propertyName, value == null ? MISSING : value);
+                }
+                failedUntil.remove(propertyName);
+                future.complete(value);
+                return value;
+            }
+            finally {
+                fetchPermits.release();
+            }
+        }
+        catch (Exception e) {
+            failures.increment();
+            failedUntil.put(propertyName, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FAILURE_RETRY_MILLIS));
+            logger.warn("Could not fetch property '{}'", propertyName, e);
+            future.complete(null);
+            return null;
+        }
+        finally {
+            inFlight.remove(propertyName, future);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package org.skife.config;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The memory and CPU limits that relative sizes like "25%heap" or "2xcpus" are based on.
+ * Everything is looked up when asked for, which happens when a config object is built.
+ */
+final class ResourceLimits
+{
+    static final ResourceLimits DEFAULT = new ResourceLimits(new File("/sys/fs/cgroup"), new File("/proc/self/cgroup"));
+
+    /** Values at or above this in a cgroup v1 limit file mean "no limit". */
+    private static final long CGROUP_V1_UNLIMITED = 1L << 62;
+
+    private static final String MAX_DIRECT_MEMORY_FLAG = "-XX:MaxDirectMemorySize=";
+
+    private final File cgroupRoot;
+    private final File processCgroups;
+
+    /**
+     * @param processCgroups The cgroups of this process, as listed in <code>/proc/self/cgroup</code>.
+     */
+    ResourceLimits(final File cgroupRoot, final File processCgroups)
+    {
+        this.cgroupRoot = cgroupRoot;
+        this.processCgroups = processCgroups;
+    }
+
+    long maxHeap()
+    {
+        final long maxMemory = Runtime.getRuntime().maxMemory();
+        if (maxMemory == Long.MAX_VALUE) {
+            throw new IllegalStateException("The maximum heap size is unbounded");
+        }
+        return maxMemory;
+    }
+
+    /**
+     * The value of <code>-XX:MaxDirectMemorySize</code>, the maximum heap size (which is the JVM default) if it was not set.
+     */
+    long maxDirectMemory()
+    {
+        long result = -1;
+        final List<String> arguments = ManagementFactory.getRuntimeMXBean().getInputArguments();
+        for (String argument : arguments) {
+            if (argument.startsWith(MAX_DIRECT_MEMORY_FLAG)) {
+                result = parseJvmSize(argument.substring(MAX_DIRECT_MEMORY_FLAG.length()));
+            }
+        }
+        return result > 0 ? result : maxHeap();
+    }
+
+    /**
+     * The cgroup (v2 or v1) memory limit of this process, the physical memory of the machine if there is none.
+     * The limit is looked up in the cgroup of the process listed in <code>/proc/self/cgroup</code> and all
+     * of its parents, the lowest one wins. That covers both containers with their own cgroup namespace, where
+     * the cgroup of the process is the root, and processes on a host like systemd services.
+     */
+    long memoryLimit()
+    {
+        final long v2 = cgroupLimit(cgroupRoot, cgroupPath(null), "memory.max");
+        if (v2 > 0) {
+            return v2;
+        }
+        final long v1 = cgroupLimit(new File(cgroupRoot, "memory"), cgroupPath("memory"), "memory.limit_in_bytes");
+        if (v1 > 0) {
+            return v1;
+        }
+
+        final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return totalMemorySize((com.sun.management.OperatingSystemMXBean) os);
+        }
+        throw new IllegalStateException("Unable to determine the memory limit, neither a cgroup limit nor the physical memory size is available");
+    }
+
+    /**
+     * getTotalMemorySize() replaced getTotalPhysicalMemorySize() in Java 14. It is looked up reflectively, as
+     * this library still builds for Java 8, where only the old name exists.
+     */
+    @SuppressWarnings("deprecation")
+    private static long totalMemorySize(final com.sun.management.OperatingSystemMXBean os)
+    {
+        try {
+            return (Long) com.sun.management.OperatingSystemMXBean.class.getMethod("getTotalMemorySize").invoke(os);
+        }
+        catch (Exception e) {
+            return os.getTotalPhysicalMemorySize();
+        }
+    }
+
+    /**
+     * The lowest limit in the limit files of the cgroup and its parents.
+     *
+     * @param path The path of the cgroup below the root, "/" if it is not known.
+     * @return -1 if there is no limit.
+     */
+    private static long cgroupLimit(final File root, final String path, final String limitFile)
+    {
+        long result = -1;
+        String cgroup = path;
+        while (true) {
+            final String value = readFirstLine(new File(root, cgroup.endsWith("/") ? cgroup + limitFile : cgroup + "/" + limitFile));
+            if (value != null && !"max".equals(value)) {
+                final long limit = Long.parseLong(value);
+                if (limit > 0 && limit < CGROUP_V1_UNLIMITED && (result < 0 || limit < result)) {
+                    result = limit;
+                }
+            }
+            final int slash = cgroup.lastIndexOf('/');
+            if (slash <= 0) {
+                if ("/".equals(cgroup)) {
+                    return result;
+                }
+                cgroup = "/";
+            }
+            else {
+                cgroup = cgroup.substring(0, slash);
+            }
+        }
+    }
+
+    /**
+     * The path of the cgroup of this process from <code>/proc/self/cgroup</code>, whose lines look like
+     * "0::/system.slice/foo.service" (v2) or "4:memory:/user.slice" (v1).
+     *
+     * @param controller The v1 controller, null for the v2 hierarchy.
+     * @return "/" if the process is not listed in a cgroup of that kind.
+     */
+    private String cgroupPath(final String controller)
+    {
+        for (String line : readLines(processCgroups)) {
+            final int first = line.indexOf(':');
+            final int second = first < 0 ? -1 : line.indexOf(':', first + 1);
+            if (second < 0) {
+                continue;
+            }
+            final String controllers = line.substring(first + 1, second);
+            final boolean matches = controller == null
+                ? "0".equals(line.substring(0, first)) && controllers.isEmpty()
+                : Arrays.asList(controllers.split(",")).contains(controller);
+            if (matches && line.startsWith("/", second + 1)) {
+                return line.substring(second + 1);
+            }
+        }
+        return "/";
+    }
+
+    int availableProcessors()
+    {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return Whether the value is meant as a multiple of the processors, i.e. ends in "cpus".
+     */
+    static boolean isCpuRelative(final String value)
+    {
+        return value.trim().endsWith("cpus");
+    }
+
+    /**
+     * Parses "<factor>xcpus" (e.g. "2xcpus" or "0.5xcpus") or just "cpus". The result is rounded and at least one.
+     *
+     * @return -1 if the value does not end in "cpus".
+     */
+    int parseCpuRelative(final String value)
+    {
+        if (!isCpuRelative(value)) {
+            return -1;
+        }
+        final String trimmed = value.trim();
+        String factor = trimmed.substring(0, trimmed.length() - "cpus".length()).trim();
+        if (factor.isEmpty()) {
+            return availableProcessors();
+        }
+        if (!factor.endsWith("x")) {
+            throw new IllegalArgumentException(String.format("%s is not a valid processor count, expected something like '2xcpus'", value));
+        }
+        factor = factor.substring(0, factor.length() - 1).trim();
+        return (int) Math.max(1, Math.round(parseFactor(factor, value) * availableProcessors()));
+    }
+
+    /**
+     * Parses "<percentage>%<base>", e.g. "25%heap", where base is one of "heap", "direct" or "memory".
+     * The percentage can not be more than 100, as nothing can be larger than the memory it lives in.
+     */
+    long parseMemoryRelative(final String spec, final int percentIndex)
+    {
+        final double percentage = parseFactor(spec.substring(0, percentIndex).trim(), spec);
+        if (percentage > 100) {
+            throw new IllegalArgumentException(String.format("%s is not a valid data amount, the percentage can not be more than 100", spec));
+        }
+        final String base = spec.substring(percentIndex + 1).trim();
+        final long baseBytes;
+        if ("heap".equals(base)) {
+            baseBytes = maxHeap();
+        }
+        else if ("direct".equals(base)) {
+            baseBytes = maxDirectMemory();
+        }
+        else if ("memory".equals(base)) {
+            baseBytes = memoryLimit();
+        }
+        else {
+            throw new IllegalArgumentException(String.format("%s is not a valid data amount, '%s' must be one of heap, direct or memory", spec, base));
+        }
+        return (long) (baseBytes * percentage / 100.0);
+    }
+
+    /**
+     * A non-negative decimal number, digits with an optional fraction.
+     */
+    private static double parseFactor(final String factor, final String spec)
+    {
+        boolean digits = false;
+        boolean dot = false;
+        for (int idx = 0; idx < factor.length(); idx++) {
+            final char c = factor.charAt(idx);
+            if (TimeSpan.isDigit(c)) {
+                digits = true;
+            }
+            else if (c == '.' && !dot) {
+                dot = true;
+            }
+            else {
+                digits = false;
+                break;
+            }
+        }
+        if (!digits) {
+            throw new IllegalArgumentException(String.format("'%s' in %s is not a valid number", factor, spec));
+        }
+        return Double.parseDouble(factor);
+    }
+
+    private static long parseJvmSize(final String size)
+    {
+        if (size.isEmpty()) {
+            return -1;
+        }
+        final int shift;
+        switch (Character.toLowerCase(size.charAt(size.length() - 1))) {
+            case 'k':
+                shift = 10;
+                break;
+            case 'm':
+                shift = 20;
+                break;
+            case 'g':
+                shift = 30;
+                break;
+            case 't':
+                shift = 40;
+                break;
+            default:
+                return Long.parseLong(size);
+        }
+        return Long.parseLong(size.substring(0, size.length() - 1)) << shift;
+    }
+
+    private static List<String> readLines(final File file)
+    {
+        final List<String> lines = new ArrayList<String>();
+        if (!file.isFile()) {
+            return lines;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line.trim());
+            }
+        }
+        catch (IOException e) {
+            // Same as not being in a cgroup.
+        }
+        return lines;
+    }
+
+    private static String readFirstLine(final File file)
+    {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.US_ASCII))) {
+            final String line = reader.readLine();
+            return line == null ? null : line.trim();
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.skife.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads properties in the format of {@link java.util.Properties#load(Reader)}, but only keeps the ones whose
+ * names are accepted by a {@link PropertyNameFilter}. The values of all other properties are skipped without
+ * being decoded, so parsing a large shared file costs little more than reading it, and only the properties a
+ * service can actually use stay on the heap. The result can be handed to {@link SnapshotConfigSource}:
+ *
+ * <pre>
+ * PropertyNameFilter filter = PropertyNameFilter.forConfigClasses(DatabaseConfig.class, HttpConfig.class);
+ * ConfigSource source = new SnapshotConfigSource(SelectivePropertiesReader.read(in, filter));
+ * </pre>
+ *
+ * @since 0.18
+ */
+public final class SelectivePropertiesReader
+{
+    private static final int END = PropertiesLineDecoder.END;
+
+    private final Decoder decoder;
+
+    private SelectivePropertiesReader(final Reader reader)
+    {
+        this.decoder = new Decoder(reader);
+    }
+
+    /**
+     * Reads an ISO-8859-1 encoded stream, same as {@link java.util.Properties#load(InputStream)}. Does not close the stream.
+     */
+    public static Map<String, String> read(final InputStream in, final PropertyNameFilter filter) throws IOException
+    {
+        return read(new InputStreamReader(in, StandardCharsets.ISO_8859_1), filter);
+    }
+
+    /**
+     * Does not close the reader.
+     */
+    public static Map<String, String> read(final Reader reader, final PropertyNameFilter filter) throws IOException
+    {
+        return new SelectivePropertiesReader(reader).readAll(filter);
+    }
+
+    private Map<String, String> readAll(final PropertyNameFilter filter) throws IOException
+    {
+        final Map<String, String> result = new HashMap<String, String>();
+        final StringBuilder key = new StringBuilder();
+        final StringBuilder value = new StringBuilder();
+
+        int c;
+        while ((c = decoder.peek()) != END) {
+            // Skip blank lines and the leading whitespace of a natural line.
+            if (c == ' ' || c == '\t' || c == '\f' || c == '\r' || c == '\n') {
+                decoder.advance();
+                continue;
+            }
+            if (c == '#' || c == '!') {
+                while ((c = decoder.peek()) != END && !PropertiesLineDecoder.isLineEnd(c)) {
+                    decoder.advance();
+                }
+                continue;
+            }
+
+            key.setLength(0);
+            boolean hasSeparator = false;
+            int ch;
+            while ((ch = decoder.next()) != END) {
+                if (!decoder.escaped && PropertiesLineDecoder.isKeyTerminator(ch)) {
+                    hasSeparator = ch == '=' || ch == ':';
+                    break;
+                }
+                key.append((char) ch);
+            }
+
+            // Whitespace around the separator is not part of the value, and a single '=' or ':' may follow
+            // whitespace that ended the key.
+            if (ch != END) {
+                while ((ch = decoder.next()) != END && !decoder.escaped) {
+                    if (ch == '=' || ch == ':') {
+                        if (hasSeparator) {
+                            break;
+                        }
+                        hasSeparator = true;
+                    }
+                    else if (ch != ' ' && ch != '\t' && ch != '\f') {
+                        break;
+                    }
+                }
+            }
+
+            if (filter.accepts(key)) {
+                value.setLength(0);
+                while (ch != END) {
+                    value.append((char) ch);
+                    ch = decoder.next();
+                }
+                result.put(key.toString(), value.toString());
+            }
+            else {
+                skipLine(ch);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Skips the rest of a logical line without keeping any of it.
+     */
+    private void skipLine(int ch) throws IOException
+    {
+        while (ch != END) {
+            ch = decoder.next();
+        }
+    }
+
+    /**
+     * Reads the characters through a buffer, so it only looks one character ahead of the stream.
+     */
+    private static final class Decoder extends PropertiesLineDecoder<IOException>
+    {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private int pos;
+        private int limit;
+
+        private Decoder(final Reader reader)
+        {
+            this.reader = reader;
+        }
+
+        @Override
+        int peek() throws IOException
+        {
+            if (pos == limit) {
+                limit = reader.read(buffer);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return END;
+                }
+            }
+            return buffer[pos];
+        }
+
+        @Override
+        void advance()
+        {
+            pos++;
+        }
+    }
+}
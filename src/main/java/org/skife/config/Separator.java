@@ -5,11 +5,24 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Sets the regular expressions that split the value of an array, collection or map config method.
+ */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Separator
 {
     public static String DEFAULT = "\\s*,\\s*";
 
+    public static String DEFAULT_KEY_VALUE = "\\s*=\\s*";
+
+    /**
+     * Separates the elements resp. the entries of a map.
+     */
     String value() default DEFAULT;
+
+    /**
+     * Separates key and value of a map entry. Only the first match in each entry is used.
+     */
+    String keyValue() default DEFAULT_KEY_VALUE;
 }
@@ -1,8 +1,9 @@
 package org.skife.config;
 
 import java.util.Properties;
+import java.util.Set;
 
-public class SimplePropertyConfigSource implements ConfigSource
+public class SimplePropertyConfigSource implements EnumerableConfigSource
 {
     private final Properties props;
 
@@ -15,4 +16,9 @@ public class SimplePropertyConfigSource implements ConfigSource
     {
         return props.getProperty(propertyName);
     }
+
+    public Set<String> getPropertyNames()
+    {
+        return props.stringPropertyNames();
+    }
 }
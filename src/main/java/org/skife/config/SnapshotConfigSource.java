@@ -0,0 +1,115 @@
+package org.skife.config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * An immutable copy of a set of properties. Unlike {@link SimplePropertyConfigSource}, which goes through
+ * the synchronized {@link Properties#getProperty(String)} and walks the defaults on every miss, lookups
+ * here are a probe into a flat open addressing table and never lock, so that parameterized config methods
+ * and replacement builds scale with the number of threads calling them.
+ *
+ * Later changes to the properties or map the snapshot was taken from are not visible.
+ *
+ * @since 0.18
+ */
+public class SnapshotConfigSource implements EnumerableConfigSource
+{
+    /** Hash of the key in the slot (see {@link HashIndex#hash(Object)}), only meaningful if the key is not null. */
+    private final int[] hashes;
+    private final String[] keys;
+    private final String[] values;
+    private final int mask;
+    private final int size;
+
+    /**
+     * Copies all properties, including those that are only present in the defaults.
+     */
+    public SnapshotConfigSource(final Properties props)
+    {
+        this(copy(props));
+    }
+
+    public SnapshotConfigSource(final Map<String, String> values)
+    {
+        int capacity = 2;
+        while (capacity < values.size() * 2) {
+            capacity <<= 1;
+        }
+        this.hashes = new int[capacity];
+        this.keys = new String[capacity];
+        this.values = new String[capacity];
+        this.mask = capacity - 1;
+
+        int size = 0;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            final String key = entry.getKey();
+            final String value = entry.getValue();
+            if (key == null || value == null) {
+                continue;
+            }
+            final int hash = HashIndex.hash(key);
+            int slot = hash & mask;
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            hashes[slot] = hash;
+            keys[slot] = key;
+            this.values[slot] = value;
+            size++;
+        }
+        this.size = size;
+    }
+
+    public String getString(final String propertyName)
+    {
+        if (propertyName == null) {
+            return null;
+        }
+        final int hash = HashIndex.hash(propertyName);
+        int slot = hash & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (hashes[slot] == hash && key.equals(propertyName)) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public Set<String> getPropertyNames()
+    {
+        final Set<String> names = new HashSet<String>(size * 2);
+        for (String key : keys) {
+            if (key != null) {
+                names.add(key);
+            }
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * @return The number of properties in the snapshot.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    private static Map<String, String> copy(final Properties props)
+    {
+        final Map<String, String> result = new HashMap<String, String>();
+        for (String name : props.stringPropertyNames()) {
+            final String value = props.getProperty(name);
+            if (value != null) {
+                result.put(name, value);
+            }
+        }
+        return result;
+    }
+}
@@ -1,65 +1,135 @@
 package org.skife.config;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class TimeSpan
 {
     private final long period;
     private final TimeUnit unit;
     private final long millis;
+    private final long nanos;
 
-    private static final Pattern SPLIT = Pattern.compile("^(\\d+)\\s?(\\w+)$");
-
-    private static final HashMap<String,TimeUnit> UNITS = new HashMap<String,TimeUnit>();
-    static {
-        UNITS.put("ms", TimeUnit.MILLISECONDS);
-        UNITS.put("millisecond", TimeUnit.MILLISECONDS);
-        UNITS.put("milliseconds", TimeUnit.MILLISECONDS);
-        UNITS.put("s", TimeUnit.SECONDS);
-        UNITS.put("second", TimeUnit.SECONDS);
-        UNITS.put("seconds", TimeUnit.SECONDS);
-        UNITS.put("m", TimeUnit.MINUTES);
-        UNITS.put("min", TimeUnit.MINUTES);
-        UNITS.put("minute", TimeUnit.MINUTES);
-        UNITS.put("minutes", TimeUnit.MINUTES);
-        UNITS.put("h", TimeUnit.HOURS);
-        UNITS.put("hour", TimeUnit.HOURS);
-        UNITS.put("hours", TimeUnit.HOURS);
-        UNITS.put("d", TimeUnit.DAYS);
-        UNITS.put("day", TimeUnit.DAYS);
-        UNITS.put("days", TimeUnit.DAYS);
-    }
+    private static final String[] UNIT_NAMES = {
+        "ns", "nanosecond", "nanoseconds",
+        "us", "µs", "μs", "microsecond", "microseconds",
+        "ms", "millisecond", "milliseconds",
+        "s", "second", "seconds",
+        "m", "min", "minute", "minutes",
+        "h", "hour", "hours",
+        "d", "day", "days"
+    };
+
+    private static final TimeUnit[] UNIT_VALUES = {
+        TimeUnit.NANOSECONDS, TimeUnit.NANOSECONDS, TimeUnit.NANOSECONDS,
+        TimeUnit.MICROSECONDS, TimeUnit.MICROSECONDS, TimeUnit.MICROSECONDS, TimeUnit.MICROSECONDS, TimeUnit.MICROSECONDS,
+        TimeUnit.MILLISECONDS, TimeUnit.MILLISECONDS, TimeUnit.MILLISECONDS,
+        TimeUnit.SECONDS, TimeUnit.SECONDS, TimeUnit.SECONDS,
+        TimeUnit.MINUTES, TimeUnit.MINUTES, TimeUnit.MINUTES, TimeUnit.MINUTES,
+        TimeUnit.HOURS, TimeUnit.HOURS, TimeUnit.HOURS,
+        TimeUnit.DAYS, TimeUnit.DAYS, TimeUnit.DAYS
+    };
 
+    /**
+     * Accepts a number, an optional single whitespace and a unit, e.g. "5 s" or "10minutes".
+     * Several of those can be combined, optionally separated by a single whitespace, e.g. "1h30m" or
+     * "1m 30s"; the result then uses the finest unit that was given ("90m" resp. "90s"). Each unit must
+     * be smaller than the one before it, so "1h1h" and "30m1h" are rejected.
+     * Parsed by hand in a single pass.
+     */
     public TimeSpan(String spec)
     {
-        Matcher m = SPLIT.matcher(spec.trim());
-        if (!m.matches()) {
-            throw new IllegalArgumentException(String.format("%s is not a valid time spec", spec));
+        int start = 0;
+        int end = spec.length();
+        while (start < end && spec.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && spec.charAt(end - 1) <= ' ') {
+            end--;
         }
-        String number = m.group(1);
-        String type = m.group(2);
-        period = Long.parseLong(number);
-        unit = UNITS.get(type);
-        if (unit == null) {
-            throw new IllegalArgumentException(String.format("%s is not a valid time unit in %s", type, spec));
+
+        long total = 0;
+        TimeUnit finest = null;
+        int idx = start;
+
+        while (true) {
+            final int numberStart = idx;
+            while (idx < end && isDigit(spec.charAt(idx))) {
+                idx++;
+            }
+            final int numberEnd = idx;
+            if (idx < end && isWhitespace(spec.charAt(idx))) {
+                idx++;
+            }
+            final int unitStart = idx;
+            while (idx < end && isUnitChar(spec.charAt(idx))) {
+                idx++;
+            }
+
+            if (numberStart == numberEnd || unitStart == idx) {
+                if (numberStart == start && numberEnd == end && end - start > 1) {
+                    // Only digits. Reported like before, when a regex used the last digit as the unit.
+                    throw new IllegalArgumentException(String.format("%s is not a valid time unit in %s", spec.substring(end - 1, end), spec));
+                }
+                throw new IllegalArgumentException(String.format("%s is not a valid time spec", spec));
+            }
+
+            final long segmentPeriod = PrimitiveArrays.parseLong(spec, numberStart, numberEnd);
+            final TimeUnit segmentUnit = unitFor(spec, unitStart, idx);
+            if (segmentUnit == null) {
+                throw new IllegalArgumentException(String.format("%s is not a valid time unit in %s", spec.substring(unitStart, idx), spec));
+            }
+
+            if (finest != null && segmentUnit.compareTo(finest) >= 0) {
+                // Most likely a typo, e.g. "1h1h" or "30m1h", summing them up would silently change the value.
+                throw new IllegalArgumentException(String.format("%s must be a smaller unit than the one before it in %s", spec.substring(unitStart, idx), spec));
+            }
+            try {
+                total = finest == null ? segmentPeriod : Math.addExact(Math.multiplyExact(total, factor(finest, segmentUnit)), segmentPeriod);
+                finest = segmentUnit;
+            }
+            catch (ArithmeticException e) {
+                throw new IllegalArgumentException(String.format("%s is too large", spec), e);
+            }
+
+            if (idx == end) {
+                break;
+            }
+            if (isWhitespace(spec.charAt(idx))) {
+                idx++;
+            }
+            if (idx == end || !isDigit(spec.charAt(idx))) {
+                throw new IllegalArgumentException(String.format("%s is not a valid time spec", spec));
+            }
         }
-        millis = TimeUnit.MILLISECONDS.convert(period, unit);
+
+        this.period = total;
+        this.unit = finest;
+        this.millis = unit.toMillis(period);
+        this.nanos = unit.toNanos(period);
     }
 
     public TimeSpan(long period, TimeUnit unit)
     {
         this.period = period;
         this.unit = unit;
-        this.millis = TimeUnit.MILLISECONDS.convert(period, unit);
+        this.millis = unit.toMillis(period);
+        this.nanos = unit.toNanos(period);
     }
 
     public long getMillis() {
         return millis;
     }
 
+    /**
+     * @return the span in nanoseconds, saturated at <code>Long.MAX_VALUE</code> (about 292 years).
+     * @since 0.18
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
     public long getPeriod()
     {
         return period;
@@ -70,10 +140,83 @@ public class TimeSpan
         return unit;
     }
 
+    /**
+     * @since 0.18
+     */
+    public Duration toDuration()
+    {
+        return Duration.of(period, chronoUnit(unit));
+    }
+
+    private static TimeUnit unitFor(String spec, int start, int end)
+    {
+        final int length = end - start;
+        for (int idx = 0; idx < UNIT_NAMES.length; idx++) {
+            final String name = UNIT_NAMES[idx];
+            if (name.length() == length && spec.regionMatches(start, name, 0, length)) {
+                return UNIT_VALUES[idx];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * How many of the finer unit make up one of the coarser unit.
+     */
+    private static long factor(TimeUnit coarser, TimeUnit finer)
+    {
+        return finer.convert(1, coarser);
+    }
+
+    private static ChronoUnit chronoUnit(TimeUnit unit)
+    {
+        switch (unit) {
+            case NANOSECONDS:
+                return ChronoUnit.NANOS;
+            case MICROSECONDS:
+                return ChronoUnit.MICROS;
+            case MILLISECONDS:
+                return ChronoUnit.MILLIS;
+            case SECONDS:
+                return ChronoUnit.SECONDS;
+            case MINUTES:
+                return ChronoUnit.MINUTES;
+            case HOURS:
+                return ChronoUnit.HOURS;
+            default:
+                return ChronoUnit.DAYS;
+        }
+    }
+
+    /**
+     * Same as <code>\d</code> in a regular expression.
+     */
+    static boolean isDigit(char c)
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Same as <code>\s</code> in a regular expression.
+     */
+    static boolean isWhitespace(char c)
+    {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isUnitChar(char c)
+    {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == 'µ' || c == 'μ';
+    }
+
     @Override
     public String toString()
     {
         switch (unit) {
+            case NANOSECONDS:
+                return period + "ns";
+            case MICROSECONDS:
+                return period + "us";
             case SECONDS:
                 return period + "s";
             case MINUTES:
@@ -107,6 +250,6 @@ public class TimeSpan
         }
         TimeSpan other = (TimeSpan)obj;
 
-        return millis == other.millis;
+        return millis == other.millis && nanos == other.nanos;
     }
 }
@@ -0,0 +1,18 @@
+package org.skife.config;
+
+import java.lang.reflect.Type;
+
+/**
+ * A {@link ConfigSource} that can hand out some values already converted to the type a config method returns,
+ * so that the {@link ConfigurationObjectFactory} does not have to parse them. See {@link CompiledConfigSource}.
+ *
+ * @since 0.18
+ */
+public interface TypedConfigSource extends ConfigSource
+{
+    /**
+     * @return The value of the property as an instance of the given type, or null if the source has no
+     *         converted value of that type for it. The factory then falls back to {@link #getString(String)}.
+     */
+    Object getValue(String propertyName, Type type);
+}
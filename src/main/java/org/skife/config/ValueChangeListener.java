@@ -0,0 +1,18 @@
+package org.skife.config;
+
+/**
+ * Notified when a reload changed the value of a method of a reloadable config object, see
+ * {@link ConfigurationObjectFactory#onChange(java.lang.reflect.Method, ValueChangeListener)}.
+ *
+ * @since 0.18
+ */
+public interface ValueChangeListener<T>
+{
+    /**
+     * Called after the new value is visible through the config object.
+     *
+     * @param oldValue The value before the reload.
+     * @param newValue The value after the reload.
+     */
+    void valueChanged(T oldValue, T newValue);
+}
@@ -0,0 +1,184 @@
+package org.skife.config;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Walks the tokens of a separated config value without materializing them. Produces exactly the
+ * tokens <code>String.split(separator)</code> would (including the removal of trailing empty tokens),
+ * but only reports their boundaries. The default separator is scanned by hand, everything else goes
+ * through an incremental {@link Matcher}.
+ */
+final class ValueTokenizer
+{
+    private final CharSequence value;
+    private final Matcher matcher;
+
+    /** Start of the next raw token, -1 once the end of the value was reached. */
+    private int position;
+
+    /** Empty tokens seen but not yet reported; they are dropped if no non-empty token follows. */
+    private int pendingEmpty;
+    private boolean hasBuffered;
+    private int bufferedStart;
+    private int bufferedEnd;
+
+    private int rawStart;
+    private int rawEnd;
+
+    private int start;
+    private int end;
+
+    ValueTokenizer(final CharSequence value, final Pattern separator)
+    {
+        this.value = value;
+        this.matcher = separator == null ? null : separator.matcher(value);
+    }
+
+    CharSequence getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Start index (inclusive) of the current token.
+     */
+    int start()
+    {
+        return start;
+    }
+
+    /**
+     * End index (exclusive) of the current token.
+     */
+    int end()
+    {
+        return end;
+    }
+
+    String token()
+    {
+        return value.subSequence(start, end).toString();
+    }
+
+    /**
+     * Advances to the next token.
+     *
+     * @return false if there are no more tokens.
+     */
+    boolean next()
+    {
+        if (pendingEmpty > 0) {
+            pendingEmpty--;
+            start = end = bufferedStart;
+            return true;
+        }
+        if (hasBuffered) {
+            hasBuffered = false;
+            start = bufferedStart;
+            end = bufferedEnd;
+            return true;
+        }
+        while (nextRaw()) {
+            if (rawStart < rawEnd) {
+                if (pendingEmpty > 0) {
+                    hasBuffered = true;
+                    bufferedStart = rawStart;
+                    bufferedEnd = rawEnd;
+                    pendingEmpty--;
+                    start = end = rawStart;
+                }
+                else {
+                    start = rawStart;
+                    end = rawEnd;
+                }
+                return true;
+            }
+            pendingEmpty++;
+        }
+        // Trailing empty tokens are dropped, same as String.split().
+        pendingEmpty = 0;
+        return false;
+    }
+
+    /**
+     * Counts the remaining tokens and rewinds the tokenizer to the beginning of the value.
+     */
+    int count()
+    {
+        int count = 0;
+        while (next()) {
+            count++;
+        }
+        reset();
+        return count;
+    }
+
+    void reset()
+    {
+        position = 0;
+        pendingEmpty = 0;
+        hasBuffered = false;
+        if (matcher != null) {
+            matcher.reset();
+        }
+    }
+
+    private boolean nextRaw()
+    {
+        if (position < 0) {
+            return false;
+        }
+        final int length = value.length();
+
+        if (matcher == null) {
+            int comma = position;
+            while (comma < length && value.charAt(comma) != ',') {
+                comma++;
+            }
+            if (comma == length) {
+                rawStart = position;
+                rawEnd = length;
+                position = -1;
+                return true;
+            }
+            int tokenEnd = comma;
+            while (tokenEnd > position && isWhitespace(value.charAt(tokenEnd - 1))) {
+                tokenEnd--;
+            }
+            rawStart = position;
+            rawEnd = tokenEnd;
+
+            int next = comma + 1;
+            while (next < length && isWhitespace(value.charAt(next))) {
+                next++;
+            }
+            position = next;
+            return true;
+        }
+        else {
+            while (matcher.find()) {
+                // A zero-width match at the very beginning never produces a leading empty token.
+                if (position == 0 && matcher.start() == 0 && matcher.end() == 0) {
+                    continue;
+                }
+                rawStart = position;
+                rawEnd = matcher.start();
+                position = matcher.end();
+                return true;
+            }
+            rawStart = position;
+            rawEnd = length;
+            position = -1;
+            return true;
+        }
+    }
+
+    /**
+     * Same set of characters as <code>\s</code> in a regular expression.
+     */
+    private static boolean isWhitespace(final char c)
+    {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -86,6 +86,59 @@ public class TestArrays
         Assert.assertArrayEquals(new float[] { 1.0f, 2.0f }, ec.getValue(), 0.0f);
     }
 
+    @Test
+    public void testPrimitiveArrays()
+    {
+        ConfigurationObjectFactory factory = new ConfigurationObjectFactory(Props.of("value", "1, -2 ,3,2147483647"));
+
+        Assert.assertArrayEquals(new int[] { 1, -2, 3, Integer.MAX_VALUE }, factory.build(IntArray.class).getValue());
+        Assert.assertArrayEquals(new long[] { 1L, -2L, 3L, Integer.MAX_VALUE }, factory.build(LongArray.class).getValue());
+        Assert.assertArrayEquals(new double[] { 1.0, -2.0, 3.0, Integer.MAX_VALUE }, factory.build(DoubleArray.class).getValue(), 0.0);
+    }
+
+    @Test
+    public void testPrimitiveArrayTokenization()
+    {
+        // Must match String.split(): leading empty tokens are kept, trailing ones are dropped.
+        Assert.assertArrayEquals(new boolean[] { false, true, false }, new ConfigurationObjectFactory(Props.of("value", ",TRUE , no,,")).build(BooleanArray.class).getValue());
+        Assert.assertArrayEquals(new int[0], new ConfigurationObjectFactory(Props.of("value", " , ,")).build(IntArray.class).getValue());
+        Assert.assertArrayEquals(new long[] { Long.MIN_VALUE, Long.MAX_VALUE }, new ConfigurationObjectFactory(Props.of("value", "-9223372036854775808,+9223372036854775807")).build(LongArray.class).getValue());
+        Assert.assertArrayEquals(new int[] { 3, 2, 1 }, cof.build(IntArraySeparator.class).getValue());
+    }
+
+    @Test
+    public void testLargePrimitiveArray()
+    {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            sb.append(i).append(", ");
+        }
+        final int[] value = new ConfigurationObjectFactory(Props.of("value", sb.toString())).build(IntArray.class).getValue();
+
+        Assert.assertEquals(50000, value.length);
+        for (int i = 0; i < value.length; i++) {
+            Assert.assertEquals(i, value[i]);
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testPrimitiveArrayOverflow()
+    {
+        new ConfigurationObjectFactory(Props.of("value", "1, 2147483648")).build(IntArray.class);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testPrimitiveArrayEmptyToken()
+    {
+        new ConfigurationObjectFactory(Props.of("value", "1,,2")).build(LongArray.class);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testByteArrayOutOfRange()
+    {
+        new ConfigurationObjectFactory(Props.of("value", "1,128")).build(ByteArray.class);
+    }
+
     public static enum TestEnum
     {
         ONE,
@@ -158,4 +211,42 @@ public class TestArrays
         @Default("1.0 ; 2.0")
         public float[] getValue();
     }
+
+    public static interface IntArray
+    {
+        @Config("value")
+        public int[] getValue();
+    }
+
+    public static interface LongArray
+    {
+        @Config("value")
+        public long[] getValue();
+    }
+
+    public static interface DoubleArray
+    {
+        @Config("value")
+        public double[] getValue();
+    }
+
+    public static interface BooleanArray
+    {
+        @Config("value")
+        public boolean[] getValue();
+    }
+
+    public static interface ByteArray
+    {
+        @Config("value")
+        public byte[] getValue();
+    }
+
+    public static interface IntArraySeparator
+    {
+        @Config("value")
+        @Separator("\\s*[;|]\\s*")
+        @Default("3 ; 2|1")
+        public int[] getValue();
+    }
 }
@@ -0,0 +1,124 @@
+package org.skife.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestBatchConfigSource
+{
+    private CountingBatchSource source;
+
+    @Before
+    public void setUp()
+    {
+        final Map<String, String> values = new HashMap<String, String>();
+        values.put("foo", "hello, world");
+        values.put("bar", "23");
+        values.put("option.dynamic", "dynamic");
+        values.put("param.a", "a value");
+        source = new CountingBatchSource(values);
+    }
+
+    @Test
+    public void testOneBatchPerBuild()
+    {
+        final Config5 config = new ConfigurationObjectFactory(source).build(Config5.class);
+
+        Assert.assertEquals("hello, world", config.getFoo());
+        Assert.assertEquals(23, config.getBar());
+        Assert.assertEquals(1, source.batches.size());
+        Assert.assertEquals(0, source.singleLookups);
+    }
+
+    @Test
+    public void testReplacementsAndParameters()
+    {
+        final Map<String, String> replacements = new HashMap<String, String>();
+        replacements.put("type", "dynamic");
+        final Batched config = new ConfigurationObjectFactory(source).buildWithReplacements(Replaced.class, replacements);
+
+        Assert.assertEquals("dynamic", config.getOption());
+        Assert.assertEquals(1, source.batches.size());
+        Assert.assertTrue(source.batches.get(0).contains("option.dynamic"));
+        Assert.assertEquals(0, source.singleLookups);
+
+        final Parameterized parameterized = new ConfigurationObjectFactory(source).build(Parameterized.class);
+        Assert.assertEquals("a value", parameterized.getParam("a"));
+        Assert.assertEquals(1, source.singleLookups);
+    }
+
+    @Test
+    public void testDefaultImplementationLoops()
+    {
+        final BatchConfigSource plain = new BatchConfigSource() {
+            public String getString(final String propertyName)
+            {
+                return "foo".equals(propertyName) ? "value" : null;
+            }
+        };
+        final List<String> names = new ArrayList<String>();
+        names.add("foo");
+        names.add("bar");
+
+        final Map<String, String> expected = new HashMap<String, String>();
+        expected.put("foo", "value");
+        Assert.assertEquals(expected, plain.getStrings(names));
+    }
+
+    public static interface Batched
+    {
+        @Config("option.${type}")
+        String getOption();
+    }
+
+    public static interface Replaced extends Batched
+    {
+        @Config("missing")
+        @Default("x")
+        String getMissing();
+    }
+
+    public static interface Parameterized
+    {
+        @Config("param.${name}")
+        @DefaultNull
+        String getParam(@Param("name") String name);
+    }
+
+    private static class CountingBatchSource implements BatchConfigSource
+    {
+        private final Map<String, String> values;
+        private final List<Collection<String>> batches = new ArrayList<Collection<String>>();
+        private int singleLookups;
+
+        private CountingBatchSource(final Map<String, String> values)
+        {
+            this.values = values;
+        }
+
+        public String getString(final String propertyName)
+        {
+            singleLookups++;
+            return values.get(propertyName);
+        }
+
+        @Override
+        public Map<String, String> getStrings(final Collection<String> propertyNames)
+        {
+            batches.add(new ArrayList<String>(propertyNames));
+            final Map<String, String> result = new HashMap<String, String>();
+            for (String propertyName : propertyNames) {
+                if (values.containsKey(propertyName)) {
+                    result.put(propertyName, values.get(propertyName));
+                }
+            }
+            return result;
+        }
+    }
+}
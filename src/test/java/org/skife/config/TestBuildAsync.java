@@ -0,0 +1,157 @@
+package org.skife.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestBuildAsync
+{
+    @Test
+    public void testLookupsRunConcurrently() throws Exception
+    {
+        // Every lookup waits until all of them have started, which only works if they run at the same time.
+        final CountDownLatch started = new CountDownLatch(3);
+        final ConfigSource source = new ConfigSource() {
+            public String getString(final String propertyName)
+            {
+                started.countDown();
+                try {
+                    if (!started.await(10, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("lookups were not run concurrently");
+                    }
+                }
+                catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return "bar".equals(propertyName) ? "23" : null;
+            }
+        };
+
+        final CompletableFuture<Three> future = new ConfigurationObjectFactory(source).buildAsync(Three.class);
+        final Three config = future.get(20, TimeUnit.SECONDS);
+
+        Assert.assertEquals(23, config.getBar());
+        Assert.assertEquals("default foo", config.getFoo());
+        Assert.assertNull(config.getBaz());
+    }
+
+    @Test
+    public void testCustomExecutorAndReplacements() throws Exception
+    {
+        final AtomicInteger tasks = new AtomicInteger();
+        final ConfigurationObjectFactory factory = new ConfigurationObjectFactory(Props.of("option.dynamic", "dynamic"));
+        factory.setAsyncExecutor(new Executor() {
+            public void execute(final Runnable command)
+            {
+                tasks.incrementAndGet();
+                command.run();
+            }
+        });
+        final Map<String, String> replacements = new HashMap<String, String>();
+        replacements.put("type", "dynamic");
+
+        final TestBatchConfigSource.Batched config = factory.buildWithReplacementsAsync(TestBatchConfigSource.Batched.class, replacements).get();
+
+        Assert.assertEquals("dynamic", config.getOption());
+        Assert.assertEquals(1, tasks.get());
+    }
+
+    @Test
+    public void testLookupsAreChunked() throws Exception
+    {
+        final AtomicInteger tasks = new AtomicInteger();
+        final AtomicInteger lookups = new AtomicInteger();
+        final ConfigurationObjectFactory factory = new ConfigurationObjectFactory(new ConfigSource() {
+            public String getString(final String propertyName)
+            {
+                lookups.incrementAndGet();
+                return "p40".equals(propertyName) ? "found" : null;
+            }
+        });
+        factory.setAsyncExecutor(new Executor() {
+            public void execute(final Runnable command)
+            {
+                tasks.incrementAndGet();
+                command.run();
+            }
+        });
+
+        Assert.assertEquals("found", factory.buildAsync(ManyNames.class).get().getValue());
+        Assert.assertEquals(16, tasks.get());
+        // Every name is looked up once, the build only reads what was looked up.
+        Assert.assertEquals(40, lookups.get());
+    }
+
+    @Test
+    public void testSlowSourceDoesNotHoldUpOtherFactories() throws Exception
+    {
+        // Every lookup of the slow factory blocks, which takes up all of its default pool.
+        final CountDownLatch release = new CountDownLatch(1);
+        final ConfigurationObjectFactory slow = new ConfigurationObjectFactory(new ConfigSource() {
+            public String getString(final String propertyName)
+            {
+                try {
+                    release.await();
+                }
+                catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return "found";
+            }
+        });
+        final CompletableFuture<ManyNames> blocked = slow.buildAsync(ManyNames.class);
+        try {
+            final Three config = new ConfigurationObjectFactory(Props.of("bar", "23")).buildAsync(Three.class).get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(23, config.getBar());
+            Assert.assertFalse(blocked.isDone());
+        }
+        finally {
+            release.countDown();
+        }
+        Assert.assertEquals("found", blocked.get(10, TimeUnit.SECONDS).getValue());
+    }
+
+    @Test
+    public void testFailuresCompleteTheFuture() throws Exception
+    {
+        final CompletableFuture<Config5> future = new ConfigurationObjectFactory(Props.of("bar", "not a number")).buildAsync(Config5.class);
+        try {
+            future.get(20, TimeUnit.SECONDS);
+            Assert.fail("build must fail");
+        }
+        catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    public static interface ManyNames
+    {
+        @Config({"p1", "p2", "p3", "p4", "p5", "p6", "p7", "p8", "p9", "p10",
+                 "p11", "p12", "p13", "p14", "p15", "p16", "p17", "p18", "p19", "p20",
+                 "p21", "p22", "p23", "p24", "p25", "p26", "p27", "p28", "p29", "p30",
+                 "p31", "p32", "p33", "p34", "p35", "p36", "p37", "p38", "p39", "p40"})
+        String getValue();
+    }
+
+    public static interface Three
+    {
+        @Config("foo")
+        @Default("default foo")
+        String getFoo();
+
+        @Config("bar")
+        int getBar();
+
+        @Config("baz")
+        @DefaultNull
+        String getBaz();
+    }
+}
@@ -1,5 +1,6 @@
 package org.skife.config;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -8,6 +9,12 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -101,6 +108,202 @@ public class TestCollections
         Assert.assertEquals(new HashSet<TestEnum>(Arrays.asList(TestEnum.TWO, TestEnum.ONE)), ec.getValue());
     }
 
+    @Test
+    public void testImmutableList()
+    {
+        EmptyClassList ec = cof.build(EmptyClassList.class);
+
+        Assert.assertSame(ec.getValue(), ec.getValue());
+        try {
+            ec.getValue().add("four");
+            Assert.fail("list must be immutable");
+        }
+        catch (UnsupportedOperationException e) {
+            // expected
+        }
+        Assert.assertEquals(Arrays.asList("one", "three", "two"), ec.getValue());
+    }
+
+    @Test
+    public void testImmutableSet()
+    {
+        StringSet ec = new ConfigurationObjectFactory(Props.of("value", "b, a, c, a, b")).build(StringSet.class);
+        Set<String> value = ec.getValue();
+
+        Assert.assertEquals(3, value.size());
+        Assert.assertEquals(Arrays.asList("b", "a", "c"), Arrays.asList(value.toArray()));
+        Assert.assertTrue(value.contains("c"));
+        Assert.assertFalse(value.contains("d"));
+        Assert.assertFalse(value.contains(null));
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("a", "b", "c")), value);
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("a", "b", "c")).hashCode(), value.hashCode());
+        try {
+            value.remove("a");
+            Assert.fail("set must be immutable");
+        }
+        catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConcreteContainerIsMutable()
+    {
+        EmptyInterface ec = cof.build(EmptyInterface.class);
+
+        Assert.assertTrue(ec.getValue().add("three"));
+    }
+
+    @Test
+    public void testLazyList()
+    {
+        LazyNumbers ec = new ConfigurationObjectFactory(Props.of("value", "1, 2,x,4,,")).build(LazyNumbers.class);
+        List<Integer> value = ec.getValue();
+
+        Assert.assertEquals(4, value.size());
+        Assert.assertEquals(Integer.valueOf(2), value.get(1));
+        Assert.assertEquals(Integer.valueOf(4), value.get(3));
+        try {
+            value.get(2);
+            Assert.fail("invalid element must fail on access");
+        }
+        catch (NumberFormatException e) {
+            // expected
+        }
+        try {
+            value.set(0, 5);
+            Assert.fail("list must be read-only");
+        }
+        catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testLazyListFromManyThreads() throws Exception
+    {
+        final AtomicBoolean coercing = new AtomicBoolean();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final ConfigurationObjectFactory factory = new ConfigurationObjectFactory(Props.of("value", "1,2,3,4,5,6,7,8"));
+        factory.addCoercible(new Coercible<Unsafe>() {
+            public Coercer<Unsafe> accept(final Class<?> clazz)
+            {
+                if (clazz != Unsafe.class) {
+                    return null;
+                }
+                return new Coercer<Unsafe>() {
+                    public Unsafe coerce(final String value)
+                    {
+                        // Not thread-safe, so it must never be entered twice.
+                        if (!coercing.compareAndSet(false, true)) {
+                            overlaps.incrementAndGet();
+                        }
+                        Thread.yield();
+                        coercing.set(false);
+                        return new Unsafe(Integer.parseInt(value));
+                    }
+                };
+            }
+        });
+        final List<Unsafe> value = factory.build(LazyUnsafe.class).getValue();
+
+        final List<Thread> threads = new ArrayList<Thread>();
+        final AtomicInteger sum = new AtomicInteger();
+        for (int i = 0; i < 8; i++) {
+            final Thread thread = new Thread() {
+                @Override
+                public void run()
+                {
+                    for (int round = 0; round < 200; round++) {
+                        for (Unsafe element : value) {
+                            sum.addAndGet(element.value);
+                        }
+                    }
+                }
+            };
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(0, overlaps.get());
+        Assert.assertEquals(8 * 200 * 36, sum.get());
+    }
+
+    @Test
+    public void testLazyNumbersDoNotWaitForCustomCoercers() throws Exception
+    {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Properties props = Props.of("value", "1,2,3");
+        props.setProperty("unsafe", "4");
+        final ConfigurationObjectFactory factory = new ConfigurationObjectFactory(props);
+        factory.addCoercible(new Coercible<Unsafe>() {
+            public Coercer<Unsafe> accept(final Class<?> clazz)
+            {
+                if (clazz != Unsafe.class) {
+                    return null;
+                }
+                return new Coercer<Unsafe>() {
+                    public Unsafe coerce(final String value)
+                    {
+                        entered.countDown();
+                        try {
+                            release.await();
+                        }
+                        catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return new Unsafe(Integer.parseInt(value));
+                    }
+                };
+            }
+        });
+        final List<Integer> value = factory.build(LazyNumbers.class).getValue();
+
+        // Holds the lock of the factory's coercions until released.
+        final Thread builder = new Thread() {
+            @Override
+            public void run()
+            {
+                factory.build(UnsafeValue.class);
+            }
+        };
+        builder.start();
+        try {
+            Assert.assertTrue(entered.await(5, TimeUnit.SECONDS));
+            final FutureTask<List<Integer>> read = new FutureTask<List<Integer>>(new Callable<List<Integer>>() {
+                public List<Integer> call()
+                {
+                    return new ArrayList<Integer>(value);
+                }
+            });
+            final Thread reader = new Thread(read);
+            reader.setDaemon(true);
+            reader.start();
+            Assert.assertEquals(Arrays.asList(1, 2, 3), read.get(5, TimeUnit.SECONDS));
+        }
+        finally {
+            release.countDown();
+            builder.join();
+        }
+    }
+
+    @Test
+    public void testLazyListEmptyAndDefault()
+    {
+        Assert.assertEquals(Collections.emptyList(), new ConfigurationObjectFactory(Props.of("value", "")).build(LazyNumbers.class).getValue());
+        Assert.assertEquals(Arrays.asList(3, 4), cof.build(LazyNumbersWithDefault.class).getValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLazySet()
+    {
+        cof.build(LazySet.class);
+    }
+
     public static enum TestEnum
     {
         ONE,
@@ -184,4 +387,57 @@ public class TestCollections
         @Default("TWO ! ONE")
         public Set<TestEnum> getValue();
     }
+
+    public static interface StringSet
+    {
+        @Config("value")
+        public Set<String> getValue();
+    }
+
+    public static interface LazyNumbers
+    {
+        @Config("value")
+        @LazyList
+        public List<Integer> getValue();
+    }
+
+    public static class Unsafe
+    {
+        private final int value;
+
+        public Unsafe(final int value)
+        {
+            this.value = value;
+        }
+    }
+
+    public static interface LazyUnsafe
+    {
+        @Config("value")
+        @LazyList
+        public List<Unsafe> getValue();
+    }
+
+    public static interface UnsafeValue
+    {
+        @Config("unsafe")
+        public Unsafe getValue();
+    }
+
+    public static interface LazyNumbersWithDefault
+    {
+        @Config("value")
+        @LazyList
+        @Separator("\\s*;\\s*")
+        @Default("3; 4")
+        public Collection<Integer> getValue();
+    }
+
+    public static interface LazySet
+    {
+        @Config("value")
+        @LazyList
+        @Default("a")
+        public Set<String> getValue();
+    }
 }
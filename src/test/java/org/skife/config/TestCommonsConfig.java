@@ -2,8 +2,11 @@ package org.skife.config;
 
 import static org.junit.Assert.assertEquals;
 
+import static org.junit.Assert.assertNull;
+
 import java.util.Properties;
 
+import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.ConfigurationConverter;
 import org.junit.Test;
 
@@ -42,4 +45,41 @@ public class TestCommonsConfig
         final ConfigSource cs = new CommonsConfigSource(ConfigurationConverter.getConfiguration(props));
         assertEquals(null, cs.getString("hello"));
     }
+
+    @Test
+    public void testCachingInvalidatesChangedKeys() throws Exception {
+        final BaseConfiguration config = new BaseConfiguration();
+        config.addProperty("hello", "world");
+        final ConfigSource cs = new CommonsConfigSource(config, true);
+
+        assertEquals("world", cs.getString("hello"));
+        assertNull(cs.getString("missing"));
+
+        config.setProperty("hello", "there");
+        config.addProperty("missing", "found");
+        assertEquals("there", cs.getString("hello"));
+        assertEquals("found", cs.getString("missing"));
+
+        config.addProperty("hello", "again");
+        assertEquals("there,again", cs.getString("hello"));
+
+        config.clearProperty("hello");
+        assertNull(cs.getString("hello"));
+
+        config.clear();
+        assertNull(cs.getString("missing"));
+    }
+
+    @Test
+    public void testCachingInterpolatedValues() throws Exception {
+        final BaseConfiguration config = new BaseConfiguration();
+        config.addProperty("host", "localhost");
+        config.addProperty("url", "http://${host}/");
+        final ConfigSource cs = new CommonsConfigSource(config, true);
+
+        assertEquals("http://localhost/", cs.getString("url"));
+
+        config.setProperty("host", "example.com");
+        assertEquals("http://example.com/", cs.getString("url"));
+    }
 }
@@ -0,0 +1,290 @@
+package org.skife.config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestCompiledConfigSource
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Properties props;
+
+    @Before
+    public void setUp()
+    {
+        props = new Properties();
+        props.setProperty("port", "8080");
+        props.setProperty("max-bytes", "9223372036854775807");
+        props.setProperty("ratio", "0.1");
+        props.setProperty("weight", "0.1");
+        props.setProperty("enabled", "true");
+        props.setProperty("timeout", "1m30s");
+        props.setProperty("buffer", "64kB");
+        props.setProperty("cache", "10%heap");
+        props.setProperty("name", "héllo");
+        props.setProperty("ids", "1, 2, 3");
+        props.setProperty("pool.orders.size", "10");
+        props.setProperty("unrelated", "x");
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        final File file = folder.newFile();
+        Assert.assertEquals(11, ConfigSnapshotCompiler.compile(new SimplePropertyConfigSource(props), file, Typed.class));
+
+        final CompiledConfigSource source = new CompiledConfigSource(file);
+        final Typed config = new ConfigurationObjectFactory(source).build(Typed.class);
+
+        Assert.assertEquals(8080, config.getPort());
+        Assert.assertEquals(Long.MAX_VALUE, config.getMaxBytes());
+        Assert.assertEquals(0.1, config.getRatio(), 0.0);
+        Assert.assertEquals(0.1f, config.getWeight(), 0.0f);
+        Assert.assertTrue(config.isEnabled());
+        Assert.assertEquals(new TimeSpan(90, TimeUnit.SECONDS), config.getTimeout());
+        Assert.assertEquals(new DataAmount("64kB"), config.getBuffer());
+        Assert.assertEquals(new DataAmount("10%heap"), config.getCache());
+        Assert.assertEquals("héllo", config.getName());
+        Assert.assertEquals(Arrays.asList(1, 2, 3), config.getIds());
+        Assert.assertEquals(10, config.getPoolSize("orders"));
+        Assert.assertEquals(5, config.getPoolSize("users"));
+        Assert.assertEquals("default", config.getMissing());
+
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("port", "max-bytes", "ratio", "weight", "enabled", "timeout", "buffer", "cache", "name", "ids", "pool.orders.size")),
+                            source.getPropertyNames());
+        Assert.assertNull(source.getString("unrelated"));
+        Assert.assertEquals("héllo", source.getString("name"));
+    }
+
+    @Test
+    public void testBuildAsync() throws Exception
+    {
+        final File file = folder.newFile();
+        ConfigSnapshotCompiler.compile(new SimplePropertyConfigSource(props), file, Typed.class);
+        final List<String> textLookups = new CopyOnWriteArrayList<String>();
+        final CompiledConfigSource source = new CompiledConfigSource(file) {
+            @Override
+            public String getString(final String propertyName)
+            {
+                textLookups.add(propertyName);
+                return super.getString(propertyName);
+            }
+        };
+
+        final Typed config = new ConfigurationObjectFactory(source).buildAsync(Typed.class).get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(8080, config.getPort());
+        Assert.assertEquals(new TimeSpan(90, TimeUnit.SECONDS), config.getTimeout());
+        // Converted values are used as they are, only values stored as text are looked up as text.
+        Assert.assertFalse(textLookups.contains("port"));
+        Assert.assertFalse(textLookups.contains("timeout"));
+        Assert.assertTrue(textLookups.contains("name"));
+    }
+
+    @Test
+    public void testConvertedValues() throws IOException
+    {
+        final File file = folder.newFile();
+        ConfigSnapshotCompiler.compile(new SimplePropertyConfigSource(props), file, Typed.class);
+        final CompiledConfigSource source = new CompiledConfigSource(file);
+
+        Assert.assertEquals(8080, source.getValue("port", int.class));
+        Assert.assertEquals(8080L, source.getValue("port", Long.class));
+        Assert.assertNull(source.getValue("port", byte.class));
+        Assert.assertNull(source.getValue("max-bytes", int.class));
+        Assert.assertEquals(Boolean.TRUE, source.getValue("enabled", boolean.class));
+        Assert.assertEquals(new TimeSpan("1m30s"), source.getValue("timeout", TimeSpan.class));
+        Assert.assertEquals(new DataAmount("64kB"), source.getValue("buffer", DataAmount.class));
+        // Depends on the machine, so only stored as text.
+        Assert.assertNull(source.getValue("cache", DataAmount.class));
+        Assert.assertNull(source.getValue("name", String.class));
+        Assert.assertNull(source.getValue("missing", int.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidValueFailsCompilation() throws IOException
+    {
+        props.setProperty("port", "eighty");
+        ConfigSnapshotCompiler.compile(new SimplePropertyConfigSource(props), folder.newFile(), Typed.class);
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotASnapshot() throws IOException
+    {
+        final File file = folder.newFile();
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            out.write("port=8080\n".getBytes("ISO-8859-1"));
+        }
+        finally {
+            out.close();
+        }
+        new CompiledConfigSource(file);
+    }
+
+    @Test
+    public void testMachineRelativeValuesStayText() throws IOException
+    {
+        final Properties relative = new Properties();
+        relative.setProperty("threads", "2xcpus");
+        relative.setProperty("cache", "50%heap");
+        relative.setProperty("port", "8080");
+        final File file = folder.newFile();
+        ConfigSnapshotCompiler.compile(new SimplePropertyConfigSource(relative), file, Relative.class);
+        final CompiledConfigSource source = new CompiledConfigSource(file);
+
+        Assert.assertNull(source.getValue("threads", int.class));
+        Assert.assertNull(source.getValue("cache", DataAmount.class));
+        Assert.assertEquals("2xcpus", source.getString("threads"));
+        Assert.assertEquals("50%heap", source.getString("cache"));
+        Assert.assertEquals(8080, source.getValue("port", int.class));
+
+        final Relative config = new ConfigurationObjectFactory(source).build(Relative.class);
+        Assert.assertEquals(2 * Runtime.getRuntime().availableProcessors(), config.getThreads());
+        Assert.assertEquals(new DataAmount("50%heap"), config.getCache());
+    }
+
+    @Test
+    public void testUnitCodes() throws IOException
+    {
+        final File file = folder.newFile();
+        ConfigSnapshotCompiler.compile(new SimplePropertyConfigSource(props), file, Typed.class);
+
+        // The codes are part of the format and must not follow the declaration order of the enums.
+        Assert.assertEquals(3, unitOffsetAndCode(file, CompiledConfigSource.TYPE_TIME_SPAN)[1]);
+        Assert.assertEquals(7, unitOffsetAndCode(file, CompiledConfigSource.TYPE_DATA_AMOUNT)[1]);
+    }
+
+    @Test
+    public void testUnknownUnit() throws IOException
+    {
+        final File file = folder.newFile();
+        ConfigSnapshotCompiler.compile(new SimplePropertyConfigSource(props), file, Typed.class);
+        final int offset = unitOffsetAndCode(file, CompiledConfigSource.TYPE_DATA_AMOUNT)[0];
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(offset);
+            raf.writeByte(13);
+        }
+        finally {
+            raf.close();
+        }
+        try {
+            new CompiledConfigSource(file);
+            Assert.fail("unknown unit must be rejected");
+        }
+        catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("unknown unit 13"));
+        }
+    }
+
+    @Test
+    public void testCommandLine() throws Exception
+    {
+        final File properties = folder.newFile();
+        final OutputStream out = new FileOutputStream(properties);
+        try {
+            props.store(out, null);
+        }
+        finally {
+            out.close();
+        }
+        final File snapshot = new File(folder.getRoot(), "config.snapshot");
+        ConfigSnapshotCompiler.main(new String[] { properties.getPath(), snapshot.getPath(), Typed.class.getName() });
+
+        Assert.assertEquals("8080", new CompiledConfigSource(snapshot).getString("port"));
+    }
+
+    /**
+     * @return The file offset and the code of the unit of the first entry with the given value type.
+     */
+    private static int[] unitOffsetAndCode(final File file, final byte valueType) throws IOException
+    {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            raf.seek(8);
+            final int count = raf.readInt();
+            final int entries = CompiledConfigSource.HEADER_SIZE + raf.readInt() * 4;
+            for (int idx = 0; idx < count; idx++) {
+                final int entry = entries + idx * CompiledConfigSource.ENTRY_SIZE;
+                raf.seek(entry + 20);
+                if (raf.readByte() == valueType) {
+                    return new int[] { entry + 21, raf.readByte() };
+                }
+            }
+            throw new IllegalStateException("no entry of type " + valueType);
+        }
+        finally {
+            raf.close();
+        }
+    }
+
+    public static interface Relative
+    {
+        @Config("threads")
+        int getThreads();
+
+        @Config("cache")
+        DataAmount getCache();
+
+        @Config("port")
+        int getPort();
+    }
+
+    public static interface Typed
+    {
+        @Config("port")
+        int getPort();
+
+        @Config("max-bytes")
+        long getMaxBytes();
+
+        @Config("ratio")
+        double getRatio();
+
+        @Config("weight")
+        float getWeight();
+
+        @Config("enabled")
+        boolean isEnabled();
+
+        @Config("timeout")
+        TimeSpan getTimeout();
+
+        @Config("buffer")
+        DataAmount getBuffer();
+
+        @Config("cache")
+        DataAmount getCache();
+
+        @Config("name")
+        String getName();
+
+        @Config("ids")
+        List<Integer> getIds();
+
+        @Config("pool.${name}.size")
+        @Default("5")
+        int getPoolSize(@Param("name") String name);
+
+        @Config("missing")
+        @Default("default")
+        String getMissing();
+    }
+}
@@ -52,6 +52,46 @@ public class TestDataAmount
         Assert.assertEquals(2000L, amt.getNumberOfBytes());
     }
 
+    @Test
+    public void testUnits()
+    {
+        Assert.assertEquals(DataAmountUnit.MEBIBYTE, new DataAmount("3MiB").getUnit());
+        Assert.assertEquals(3L * 1024 * 1024, new DataAmount("3 \tMiB").getNumberOfBytes());
+        Assert.assertEquals(DataAmountUnit.EXABYTE, new DataAmount("1EB").getUnit());
+        Assert.assertEquals(DataAmountUnit.BYTE, new DataAmount("1B").getUnit());
+
+        for (DataAmountUnit unit : DataAmountUnit.values()) {
+            Assert.assertEquals(unit, DataAmountUnit.fromString(unit.getSymbol()));
+            Assert.assertEquals(unit, DataAmountUnit.fromStringCaseInsensitive(unit.getSymbol().toLowerCase()));
+            Assert.assertEquals(unit, DataAmountUnit.fromStringCaseInsensitive(unit.getSymbol().toUpperCase()));
+        }
+    }
+
+    @Test
+    public void testInvalid()
+    {
+        assertInvalid("kB", "kB is not a valid data amount");
+        assertInvalid("10 ", "10  is not a valid data amount");
+        assertInvalid("10kB ", "10kB  is not a valid data amount");
+        assertInvalid("-10kB", "-10kB is not a valid data amount");
+        assertInvalid("10 k B", "10 k B is not a valid data amount");
+        assertInvalid("10kb", "Unknown unit 'kb'");
+        assertInvalid("10KB", "Unknown unit 'KB'");
+        assertInvalid("10Kib", "Unknown unit 'Kib'");
+        assertInvalid("10Bytes", "Unknown unit 'Bytes'");
+    }
+
+    private static void assertInvalid(String spec, String message)
+    {
+        try {
+            new DataAmount(spec);
+            Assert.fail("expected '" + spec + "' to be rejected");
+        }
+        catch (IllegalArgumentException e) {
+            Assert.assertEquals(message, e.getMessage());
+        }
+    }
+
     public static abstract class ClassWithKilobytes
     {
         @Config("value")
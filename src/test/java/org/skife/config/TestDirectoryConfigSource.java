@@ -0,0 +1,185 @@
+package org.skife.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestDirectoryConfigSource
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DirectoryConfigSource source;
+    private final BlockingQueue<Set<String>> changes = new LinkedBlockingQueue<Set<String>>();
+
+    @After
+    public void tearDown() throws IOException
+    {
+        if (source != null) {
+            source.close();
+        }
+    }
+
+    @Test
+    public void testOneFilePerKey() throws Exception
+    {
+        final Path root = folder.getRoot().toPath();
+        write(root.resolve("foo"), "hello, world\n");
+        write(root.resolve("bar"), "23");
+        Files.createDirectory(root.resolve("db"));
+        write(root.resolve("db").resolve("url"), "jdbc:h2:mem\r\n");
+        write(root.resolve(".hidden"), "ignored");
+
+        final StringBuilder large = new StringBuilder();
+        while (large.length() < DirectoryConfigSource.LARGE_FILE_SIZE) {
+            large.append("0123456789");
+        }
+        write(root.resolve("large"), large.toString());
+
+        start(root);
+        final Config5 config = new ConfigurationObjectFactory(source).build(Config5.class);
+
+        Assert.assertEquals("hello, world", config.getFoo());
+        Assert.assertEquals(23, config.getBar());
+        Assert.assertEquals("jdbc:h2:mem", source.getString("db.url"));
+        Assert.assertEquals(large.toString(), source.getString("large"));
+        Assert.assertNull(source.getString(".hidden"));
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("foo", "bar", "db.url", "large")), source.getPropertyNames());
+    }
+
+    @Test
+    public void testSymlinkSwap() throws Exception
+    {
+        // The layout of a Kubernetes Secret volume.
+        final Path root = folder.getRoot().toPath();
+        final Path first = Files.createDirectory(root.resolve("..2024_01_01"));
+        write(first.resolve("user"), "admin");
+        write(first.resolve("password"), "secret");
+        Files.createSymbolicLink(root.resolve("..data"), first.getFileName());
+        Files.createSymbolicLink(root.resolve("user"), Paths.get("..data", "user"));
+        Files.createSymbolicLink(root.resolve("password"), Paths.get("..data", "password"));
+        start(root);
+
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("user", "password")), source.getPropertyNames());
+        Assert.assertEquals("secret", source.getString("password"));
+
+        final Path second = Files.createDirectory(root.resolve("..2024_01_02"));
+        write(second.resolve("user"), "admin");
+        write(second.resolve("password"), "rotated");
+        Files.createSymbolicLink(root.resolve("..data_tmp"), second.getFileName());
+        Files.move(root.resolve("..data_tmp"), root.resolve("..data"), StandardCopyOption.ATOMIC_MOVE);
+
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("password")), changes.poll(10, TimeUnit.SECONDS));
+        Assert.assertEquals("rotated", source.getString("password"));
+        Assert.assertEquals("admin", source.getString("user"));
+    }
+
+    @Test
+    public void testLargeFileOfTheScannedGeneration() throws Exception
+    {
+        final Path root = folder.getRoot().toPath();
+        final Path first = Files.createDirectory(root.resolve("..2024_01_01"));
+        write(first.resolve("cert"), large('a'));
+        Files.createSymbolicLink(root.resolve("..data"), first.getFileName());
+        Files.createSymbolicLink(root.resolve("cert"), Paths.get("..data", "cert"));
+        // No rescan on its own, so the large file is first read after the swap.
+        source = new DirectoryConfigSource(root.toFile(), new TimeSpan("1h"));
+
+        final Path second = Files.createDirectory(root.resolve("..2024_01_02"));
+        write(second.resolve("cert"), large('b'));
+        Files.createSymbolicLink(root.resolve("..data_tmp"), second.getFileName());
+        Files.move(root.resolve("..data_tmp"), root.resolve("..data"), StandardCopyOption.ATOMIC_MOVE);
+
+        Assert.assertEquals(large('a'), source.getString("cert"));
+        Assert.assertTrue(source.reload());
+        Assert.assertEquals(large('b'), source.getString("cert"));
+    }
+
+    @Test
+    public void testReloadAfterClose() throws Exception
+    {
+        final Path root = folder.getRoot().toPath();
+        write(root.resolve("foo"), "hello");
+        start(root);
+        source.close();
+
+        Assert.assertFalse(source.reload());
+        Assert.assertEquals("hello", source.getString("foo"));
+    }
+
+    @Test
+    public void testSubdirectoryChanges() throws Exception
+    {
+        final Path root = folder.getRoot().toPath();
+        Files.createDirectory(root.resolve("db"));
+        write(root.resolve("db").resolve("url"), "jdbc:h2:mem");
+        start(root);
+
+        write(root.resolve("db").resolve("url"), "jdbc:h2:file");
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("db.url")), changes.poll(10, TimeUnit.SECONDS));
+        Assert.assertEquals("jdbc:h2:file", source.getString("db.url"));
+
+        // Directories added later are watched as well.
+        Files.createDirectory(root.resolve("cache"));
+        write(root.resolve("cache").resolve("size"), "10");
+        // A scan of the still empty directory changes no property, so there is a single notification.
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("cache.size")), changes.poll(10, TimeUnit.SECONDS));
+
+        write(root.resolve("cache").resolve("size"), "20");
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("cache.size")), changes.poll(10, TimeUnit.SECONDS));
+        Assert.assertEquals("20", source.getString("cache.size"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testScanFailure() throws Exception
+    {
+        final Path root = folder.getRoot().toPath();
+        Files.createDirectory(root.resolve("loop"));
+        Files.createSymbolicLink(root.resolve("loop").resolve("back"), root);
+        new DirectoryConfigSource(root.toFile());
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotADirectory() throws Exception
+    {
+        new DirectoryConfigSource(folder.newFile());
+    }
+
+    private void start(final Path root) throws IOException
+    {
+        source = new DirectoryConfigSource(root.toFile(), new TimeSpan("20ms"));
+        source.addListener(new ConfigSourceListener() {
+            public void sourceChanged(final Set<String> changedKeys)
+            {
+                changes.add(changedKeys);
+            }
+        });
+    }
+
+    private static String large(final char c)
+    {
+        final char[] chars = new char[DirectoryConfigSource.LARGE_FILE_SIZE];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    private static void write(final Path path, final String content) throws IOException
+    {
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
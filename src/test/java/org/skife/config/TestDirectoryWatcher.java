@@ -0,0 +1,48 @@
+package org.skife.config;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestDirectoryWatcher
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFailedCallbacksAreRetried() throws Exception
+    {
+        final AtomicInteger calls = new AtomicInteger();
+        final Semaphore called = new Semaphore(0);
+        final DirectoryWatcher watcher = new DirectoryWatcher(folder.getRoot().toPath(), 10, "test-watcher", new Callable<Boolean>() {
+            public Boolean call()
+            {
+                called.release();
+                final int call = calls.incrementAndGet();
+                if (call == 2) {
+                    throw new IllegalStateException("second call fails");
+                }
+                return call >= 3;
+            }
+        });
+        try {
+            // Changes made before the watcher is started are not lost.
+            Assert.assertTrue(new File(folder.getRoot(), "changed").createNewFile());
+            watcher.start();
+
+            Assert.assertTrue(called.tryAcquire(3, 10, TimeUnit.SECONDS));
+            Assert.assertFalse(called.tryAcquire(200, TimeUnit.MILLISECONDS));
+            Assert.assertEquals(3, calls.get());
+        }
+        finally {
+            watcher.close();
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package org.skife.config;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -71,6 +77,74 @@ public class TestEnums
         Assert.assertNull(ec.getValue());
     }
 
+    @Test
+    public void testCaseInsensitiveLookup()
+    {
+        Coercer<Object> coercer = new CaseInsensitiveEnumCoercible().accept(MixedCase.class);
+
+        Assert.assertEquals(MixedCase.Alpha, coercer.coerce("ALPHA"));
+        Assert.assertEquals(MixedCase.Alpha, coercer.coerce("alpha"));
+        Assert.assertEquals(MixedCase.BETA, coercer.coerce("beta"));
+        Assert.assertEquals(MixedCase.gamma_delta, coercer.coerce("Gamma_Delta"));
+        Assert.assertNull(coercer.coerce(null));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCaseInsensitiveNoMatch()
+    {
+        new CaseInsensitiveEnumCoercible().accept(MixedCase.class).coerce("alph");
+    }
+
+    @Test
+    public void testEnumSet()
+    {
+        EnumCollections ec = cof.build(EnumCollections.class);
+
+        Assert.assertEquals(EnumSet.of(TestEnum.ONE, TestEnum.THREE), ec.getSet());
+        Assert.assertEquals(Arrays.asList(TestEnum.THREE, TestEnum.ONE, TestEnum.THREE), ec.getCollection());
+        try {
+            ec.getSet().add(TestEnum.TWO);
+            Assert.fail("set must be immutable");
+        }
+        catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testEnumMap()
+    {
+        EnumCollections ec = cof.build(EnumCollections.class);
+        Map<TestEnum, Integer> expected = new EnumMap<TestEnum, Integer>(TestEnum.class);
+        expected.put(TestEnum.ONE, 1);
+        expected.put(TestEnum.TWO, 2);
+
+        Assert.assertEquals(expected, ec.getMap());
+        Assert.assertEquals(Arrays.asList(TestEnum.ONE, TestEnum.TWO), Arrays.asList(ec.getMap().keySet().toArray()));
+    }
+
+    public static enum MixedCase
+    {
+        Alpha,
+        BETA,
+        gamma_delta
+    }
+
+    public static interface EnumCollections
+    {
+        @Config("set")
+        @Default("three, one, THREE")
+        Set<TestEnum> getSet();
+
+        @Config("collection")
+        @Default("three, one, THREE")
+        Collection<TestEnum> getCollection();
+
+        @Config("map")
+        @Default("two=2, one=1")
+        Map<TestEnum, Integer> getMap();
+    }
+
     public static enum TestEnum
     {
         ONE,
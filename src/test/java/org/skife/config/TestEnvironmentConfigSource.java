@@ -0,0 +1,68 @@
+package org.skife.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestEnvironmentConfigSource
+{
+    @Test
+    public void testRelaxedNames()
+    {
+        final Map<String, String> env = new HashMap<String, String>();
+        env.put("DB_POOL_MAX_SIZE", "20");
+        env.put("foo", "hello");
+        env.put("HTTP-PORT", "8080");
+
+        final EnvironmentConfigSource source = new EnvironmentConfigSource(env);
+
+        Assert.assertEquals("20", source.getString("db.pool.max-size"));
+        Assert.assertEquals("20", source.getString("db_pool.max_size"));
+        Assert.assertEquals("20", source.getString("DB_POOL_MAX_SIZE"));
+        Assert.assertEquals("hello", source.getString("FOO"));
+        Assert.assertEquals("8080", source.getString("http.port"));
+        Assert.assertNull(source.getString("db.pool.max.sizes"));
+        Assert.assertNull(source.getString("dbpoolmaxsize"));
+        Assert.assertNull(source.getString(null));
+    }
+
+    @Test
+    public void testExactNamesWinCollisions()
+    {
+        final Map<String, String> env = new HashMap<String, String>();
+        env.put("db.url", "lower");
+        env.put("DB_URL", "upper");
+        env.put("Db-Url", "mixed");
+
+        final EnvironmentConfigSource source = new EnvironmentConfigSource(env);
+        // An exact spelling wins, otherwise the upper case one.
+        Assert.assertEquals("lower", source.getString("db.url"));
+        Assert.assertEquals("mixed", source.getString("Db-Url"));
+        Assert.assertEquals("upper", source.getString("DB_URL"));
+        Assert.assertEquals("upper", source.getString("db-url"));
+    }
+
+    @Test
+    public void testWithFactory()
+    {
+        final Map<String, String> env = new HashMap<String, String>();
+        env.put("FOO", "hello, world");
+        env.put("BAR", "23");
+
+        final Config5 config = new ConfigurationObjectFactory(new EnvironmentConfigSource(env)).build(Config5.class);
+
+        Assert.assertEquals("hello, world", config.getFoo());
+        Assert.assertEquals(23, config.getBar());
+    }
+
+    @Test
+    public void testProcessEnvironment()
+    {
+        final EnvironmentConfigSource source = new EnvironmentConfigSource();
+        for (Map.Entry<String, String> entry : System.getenv().entrySet()) {
+            Assert.assertNotNull(entry.getKey(), source.getString(entry.getKey()));
+        }
+    }
+}
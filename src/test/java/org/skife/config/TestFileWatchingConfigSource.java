@@ -0,0 +1,108 @@
+package org.skife.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestFileWatchingConfigSource
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FileWatchingConfigSource source;
+    private final BlockingQueue<Set<String>> changes = new LinkedBlockingQueue<Set<String>>();
+
+    @After
+    public void tearDown() throws IOException
+    {
+        if (source != null) {
+            source.close();
+        }
+    }
+
+    @Test
+    public void testAtomicReplace() throws Exception
+    {
+        final File file = new File(folder.getRoot(), "app.properties");
+        write(file.toPath(), "foo=hello, world\nbar=23\nbaz=gone soon\n");
+        start(file);
+
+        final Config5 config = new ConfigurationObjectFactory(source).build(Config5.class);
+        Assert.assertEquals(23, config.getBar());
+
+        final Path tmp = new File(folder.getRoot(), "app.properties.tmp").toPath();
+        write(tmp, "foo=hello, world\nbar=42\nqux=new\n");
+        Files.move(tmp, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("bar", "baz", "qux")), changes.poll(10, TimeUnit.SECONDS));
+        Assert.assertEquals("42", source.getString("bar"));
+        Assert.assertNull(source.getString("baz"));
+        Assert.assertEquals("new", source.getString("qux"));
+    }
+
+    @Test
+    public void testSymlinkSwap() throws Exception
+    {
+        // The layout of a Kubernetes ConfigMap volume.
+        final Path root = folder.getRoot().toPath();
+        final Path first = Files.createDirectory(root.resolve("..2024_01_01"));
+        write(first.resolve("app.properties"), "foo=first\n");
+        Files.createSymbolicLink(root.resolve("..data"), first.getFileName());
+        Files.createSymbolicLink(root.resolve("app.properties"), Paths.get("..data", "app.properties"));
+        start(root.resolve("app.properties").toFile());
+        Assert.assertEquals("first", source.getString("foo"));
+
+        final Path second = Files.createDirectory(root.resolve("..2024_01_02"));
+        write(second.resolve("app.properties"), "foo=second\n");
+        Files.createSymbolicLink(root.resolve("..data_tmp"), second.getFileName());
+        Files.move(root.resolve("..data_tmp"), root.resolve("..data"), StandardCopyOption.ATOMIC_MOVE);
+
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("foo")), changes.poll(10, TimeUnit.SECONDS));
+        Assert.assertEquals("second", source.getString("foo"));
+    }
+
+    @Test
+    public void testUnreadableFileKeepsProperties() throws Exception
+    {
+        final File file = new File(folder.getRoot(), "app.properties");
+        write(file.toPath(), "foo=hello\n");
+        start(file);
+
+        Assert.assertTrue(file.delete());
+        Assert.assertFalse(source.reload());
+        Assert.assertEquals("hello", source.getString("foo"));
+        Assert.assertEquals(new HashSet<String>(Arrays.asList("foo")), source.getPropertyNames());
+    }
+
+    private void start(final File file) throws IOException
+    {
+        source = new FileWatchingConfigSource(file, new TimeSpan("20ms"));
+        source.addListener(new ConfigSourceListener() {
+            public void sourceChanged(final Set<String> changedKeys)
+            {
+                changes.add(changedKeys);
+            }
+        });
+    }
+
+    private static void write(final Path path, final String content) throws IOException
+    {
+        Files.write(path, content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
@@ -0,0 +1,111 @@
+package org.skife.config;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestJitteredTimeSpan
+{
+    private ConfigurationObjectFactory cof;
+
+    @Before
+    public void setUp()
+    {
+        cof = new ConfigurationObjectFactory(new Properties());
+    }
+
+    @After
+    public void tearDown()
+    {
+        cof = null;
+    }
+
+    @Test
+    public void testRelativeSpread()
+    {
+        JitteredTimeSpan span = cof.build(Intervals.class).getRefresh();
+
+        Assert.assertEquals(new TimeSpan(27, TimeUnit.SECONDS), span.getMin());
+        Assert.assertEquals(new TimeSpan(33, TimeUnit.SECONDS), span.getMax());
+        assertInRange(span, 27000, 33000);
+        Assert.assertEquals(span, new JitteredTimeSpan("30s+-10%"));
+        Assert.assertEquals("30s±10%", span.toString());
+    }
+
+    @Test
+    public void testRange()
+    {
+        JitteredTimeSpan span = cof.build(Intervals.class).getPoll();
+
+        Assert.assertEquals(new TimeSpan(25, TimeUnit.SECONDS), span.getMin());
+        Assert.assertEquals(new TimeSpan(35, TimeUnit.SECONDS), span.getMax());
+        assertInRange(span, 25000, 35000);
+    }
+
+    @Test
+    public void testAbsoluteSpreadAndFixed()
+    {
+        JitteredTimeSpan spread = new JitteredTimeSpan("1m ± 90s");
+        Assert.assertEquals(new TimeSpan(0, TimeUnit.SECONDS), spread.getMin());
+        Assert.assertEquals(new TimeSpan(2, TimeUnit.MINUTES), spread.getMax());
+        Assert.assertEquals("2m", spread.getMax().toString());
+
+        JitteredTimeSpan fixed = new JitteredTimeSpan("250ms");
+        Assert.assertEquals(250L, fixed.nextMillis());
+        Assert.assertEquals(250000000L, fixed.nextDuration().toNanos());
+    }
+
+    @Test
+    public void testSpreadsValues()
+    {
+        JitteredTimeSpan span = new JitteredTimeSpan("0ns..1000000ns");
+        long first = span.nextNanos();
+        for (int i = 0; i < 100; i++) {
+            if (span.nextNanos() != first) {
+                return;
+            }
+        }
+        Assert.fail("100 draws returned the same value");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvertedRange()
+    {
+        new JitteredTimeSpan("35s..25s");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentage()
+    {
+        new JitteredTimeSpan("30s±110%");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNaNPercentage()
+    {
+        new JitteredTimeSpan("30s±NaN%");
+    }
+
+    private static void assertInRange(JitteredTimeSpan span, long minMillis, long maxMillis)
+    {
+        for (int i = 0; i < 1000; i++) {
+            long value = span.nextMillis();
+            Assert.assertTrue(value >= minMillis && value <= maxMillis);
+        }
+    }
+
+    public static interface Intervals
+    {
+        @Config("refresh")
+        @Default("30s±10%")
+        JitteredTimeSpan getRefresh();
+
+        @Config("poll")
+        @Default("25s..35s")
+        JitteredTimeSpan getPoll();
+    }
+}
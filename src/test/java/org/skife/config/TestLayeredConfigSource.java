@@ -0,0 +1,151 @@
+package org.skife.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestLayeredConfigSource
+{
+    private Properties overrides;
+    private CountingSource plain;
+    private SnapshotConfigSource defaults;
+    private LayeredConfigSource source;
+
+    @Before
+    public void setUp()
+    {
+        overrides = new Properties();
+        overrides.setProperty("foo", "override");
+
+        final Map<String, String> plainValues = new HashMap<String, String>();
+        plainValues.put("foo", "plain");
+        plainValues.put("bar", "plain");
+        plain = new CountingSource(plainValues);
+
+        final Map<String, String> defaultValues = new HashMap<String, String>();
+        defaultValues.put("foo", "default");
+        defaultValues.put("bar", "default");
+        defaultValues.put("baz", "default");
+        defaults = new SnapshotConfigSource(defaultValues);
+
+        source = new LayeredConfigSource(new SimplePropertyConfigSource(overrides), plain, defaults);
+    }
+
+    @Test
+    public void testPrecedence()
+    {
+        Assert.assertEquals("override", source.getString("foo"));
+        Assert.assertEquals("plain", source.getString("bar"));
+        Assert.assertEquals("default", source.getString("baz"));
+        Assert.assertNull(source.getString("qux"));
+    }
+
+    @Test
+    public void testNonEnumerableLayersBelowTheWinnerAreNotAsked()
+    {
+        source.getString("foo");
+        Assert.assertTrue(plain.asked.isEmpty());
+
+        source.getString("baz");
+        Assert.assertEquals(1, plain.asked.size());
+    }
+
+    @Test
+    public void testLayerChanged()
+    {
+        overrides.setProperty("baz", "override");
+        overrides.remove("foo");
+        // The new property is not in the table yet, a removed one falls back to the layers below.
+        Assert.assertEquals("default", source.getString("baz"));
+        Assert.assertEquals("plain", source.getString("foo"));
+
+        source.layerChanged(0);
+        Assert.assertEquals("override", source.getString("baz"));
+        Assert.assertEquals("plain", source.getString("foo"));
+
+        overrides.setProperty("foo", "changed");
+        source.layerChanged(0);
+        Assert.assertEquals("changed", source.getString("foo"));
+
+        // Values of known properties are always read live.
+        overrides.setProperty("foo", "changed again");
+        Assert.assertEquals("changed again", source.getString("foo"));
+
+        // Non-enumerable layers are always asked.
+        source.layerChanged(1);
+        overrides.clear();
+        source.refresh();
+        Assert.assertEquals("plain", source.getString("foo"));
+        Assert.assertEquals("default", source.getString("baz"));
+    }
+
+    @Test
+    public void testManyIncrementalChanges()
+    {
+        final Properties top = new Properties();
+        final Properties bottom = new Properties();
+        for (int i = 0; i < 200; i++) {
+            bottom.setProperty("p" + i, "bottom");
+        }
+        final LayeredConfigSource layered = new LayeredConfigSource(new SimplePropertyConfigSource(top), new SimplePropertyConfigSource(bottom));
+
+        // Enough changes to fold the overlay into the table a few times.
+        for (int i = 0; i < 200; i++) {
+            top.setProperty("p" + i, "top");
+            top.setProperty("q" + i, "top");
+            layered.layerChanged(0);
+            Assert.assertEquals("top", layered.getString("p" + i));
+            Assert.assertEquals("top", layered.getString("q" + i));
+            if (i < 199) {
+                Assert.assertEquals("bottom", layered.getString("p" + (i + 1)));
+            }
+        }
+        for (int i = 0; i < 200; i += 2) {
+            top.remove("p" + i);
+            top.remove("q" + i);
+            layered.layerChanged(0);
+        }
+        for (int i = 0; i < 200; i++) {
+            Assert.assertEquals(i % 2 == 0 ? "bottom" : "top", layered.getString("p" + i));
+            Assert.assertEquals(i % 2 == 0 ? null : "top", layered.getString("q" + i));
+        }
+    }
+
+    @Test
+    public void testWithFactory()
+    {
+        final Config5 config = new ConfigurationObjectFactory(new LayeredConfigSource(new SimplePropertyConfigSource(Props.of("bar", "23")), defaults)).build(Config5.class);
+
+        Assert.assertEquals("default", config.getFoo());
+        Assert.assertEquals(23, config.getBar());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testUnknownLayer()
+    {
+        source.layerChanged(3);
+    }
+
+    private static class CountingSource implements ConfigSource
+    {
+        private final Map<String, String> values;
+        private final List<String> asked = new ArrayList<String>();
+
+        private CountingSource(final Map<String, String> values)
+        {
+            this.values = values;
+        }
+
+        public String getString(final String propertyName)
+        {
+            asked.add(propertyName);
+            return values.get(propertyName);
+        }
+    }
+}
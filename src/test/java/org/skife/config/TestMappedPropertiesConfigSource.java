@@ -0,0 +1,126 @@
+package org.skife.config;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestMappedPropertiesConfigSource
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSimple() throws IOException
+    {
+        final MappedPropertiesConfigSource source = new MappedPropertiesConfigSource(write("foo = hello, world\nbar: 23\n"));
+        final Config5 config = new ConfigurationObjectFactory(source).build(Config5.class);
+
+        Assert.assertThat(config.getFoo(), is("hello, world"));
+        Assert.assertThat(config.getBar(), is(23));
+        Assert.assertNull(source.getString("baz"));
+    }
+
+    @Test
+    public void testSameAsPropertiesLoad() throws IOException
+    {
+        final String content =
+            "# comment\n" +
+            "  ! another comment \\\n" +
+            "plain=value\n" +
+            "\n" +
+            "   indented   =   spaced value  \n" +
+            "colon:value\r\n" +
+            "whitespace separated\tvalue\r" +
+            "both = : value\n" +
+            "continued = first, \\\n" +
+            "            second, \\\r\n" +
+            "\tthird\n" +
+            "key\\ with\\=escapes\\:= x\\ty\\u00e9\\\\\n" +
+            "con\\\n" +
+            "  tinued\\ key = yes\n" +
+            "empty=\n" +
+            "novalue\n" +
+            "=emptykey\n" +
+            "escaped\\ =\\  leading\n" +
+            "latin1=caf\u00e9\n" +
+            "dup=first\n" +
+            "dup=second\n" +
+            "Aa=collision 1\n" +
+            "BB=collision 2\n" +
+            "last=no newline\\";
+
+        final Properties expected = new Properties();
+        expected.load(new ByteArrayInputStream(content.getBytes("ISO-8859-1")));
+
+        final MappedPropertiesConfigSource source = new MappedPropertiesConfigSource(write(content));
+
+        Assert.assertEquals(expected.size(), source.size());
+        Assert.assertEquals(expected.stringPropertyNames(), source.getPropertyNames());
+        for (String name : expected.stringPropertyNames()) {
+            Assert.assertEquals(name, expected.getProperty(name), source.getString(name));
+            // second lookup is served from the cache
+            Assert.assertEquals(name, expected.getProperty(name), source.getString(name));
+        }
+        Assert.assertNull(source.getString("key"));
+        Assert.assertNull(source.getString("dupe"));
+    }
+
+    @Test
+    public void testLargeFile() throws IOException
+    {
+        final File file = folder.newFile();
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            for (int i = 0; i < 100000; i++) {
+                out.write(("key." + i + "=" + i + "\n").getBytes("ISO-8859-1"));
+            }
+        }
+        finally {
+            out.close();
+        }
+        final MappedPropertiesConfigSource source = new MappedPropertiesConfigSource(file);
+
+        Assert.assertEquals(100000, source.size());
+        Assert.assertEquals("0", source.getString("key.0"));
+        Assert.assertEquals("99999", source.getString("key.99999"));
+        Assert.assertNull(source.getString("key.100000"));
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException
+    {
+        final MappedPropertiesConfigSource source = new MappedPropertiesConfigSource(write(""));
+
+        Assert.assertEquals(0, source.size());
+        Assert.assertNull(source.getString("foo"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedEscape() throws IOException
+    {
+        new MappedPropertiesConfigSource(write("foo=\\u00zz\n")).getString("foo");
+    }
+
+    private File write(final String content) throws IOException
+    {
+        final File file = folder.newFile();
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("ISO-8859-1"));
+        }
+        finally {
+            out.close();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,119 @@
+package org.skife.config;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestMaps
+{
+    private ConfigurationObjectFactory cof;
+
+    @Before
+    public void setUp()
+    {
+        cof = new ConfigurationObjectFactory(new Properties());
+    }
+
+    @After
+    public void tearDown()
+    {
+        cof = null;
+    }
+
+    @Test
+    public void testDefaultSeparators()
+    {
+        Weights ec = cof.build(Weights.class);
+
+        Map<String, Integer> expected = new HashMap<String, Integer>();
+        expected.put("a", 1);
+        expected.put("b", 2);
+        expected.put("c", 3);
+
+        Assert.assertEquals(expected, ec.getValue());
+        Assert.assertEquals(Integer.valueOf(2), ec.getValue().get("b"));
+        Assert.assertNull(ec.getValue().get("d"));
+        Assert.assertEquals(Arrays.asList("b", "a", "c"), Arrays.asList(ec.getValue().keySet().toArray()));
+    }
+
+    @Test
+    public void testDuplicateKeys()
+    {
+        Weights ec = new ConfigurationObjectFactory(Props.of("value", "a=1,b=2,a=3")).build(Weights.class);
+
+        Assert.assertEquals(2, ec.getValue().size());
+        Assert.assertEquals(Integer.valueOf(3), ec.getValue().get("a"));
+    }
+
+    @Test
+    public void testCustomSeparators()
+    {
+        Timeouts ec = cof.build(Timeouts.class);
+
+        Assert.assertEquals(2, ec.getValue().size());
+        Assert.assertEquals(new TimeSpan("5s"), ec.getValue().get(TestEnum.ONE));
+        Assert.assertEquals(new TimeSpan("10m"), ec.getValue().get(TestEnum.TWO));
+    }
+
+    @Test
+    public void testConcreteType()
+    {
+        Sorted ec = cof.build(Sorted.class);
+
+        Assert.assertEquals(Arrays.asList(1L, 2L), Arrays.asList(ec.getValue().keySet().toArray()));
+        ec.getValue().put(3L, "three");
+    }
+
+    @Test
+    public void testEmptyValue()
+    {
+        Assert.assertTrue(new ConfigurationObjectFactory(Props.of("value", "")).build(Weights.class).getValue().isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable()
+    {
+        cof.build(Weights.class).getValue().put("d", 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingKeyValueSeparator()
+    {
+        new ConfigurationObjectFactory(Props.of("value", "a=1,b")).build(Weights.class);
+    }
+
+    public static enum TestEnum
+    {
+        ONE,
+        TWO
+    }
+
+    public static interface Weights
+    {
+        @Config("value")
+        @Default("b = 2, a=1, c =3")
+        Map<String, Integer> getValue();
+    }
+
+    public static interface Timeouts
+    {
+        @Config("value")
+        @Separator(value = "\\s*;\\s*", keyValue = ":")
+        @Default("one:5s; two:10m")
+        Map<TestEnum, TimeSpan> getValue();
+    }
+
+    public static interface Sorted
+    {
+        @Config("value")
+        @Default("2=two,1=one")
+        TreeMap<Long, String> getValue();
+    }
+}
@@ -0,0 +1,106 @@
+package org.skife.config;
+
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestPrimitiveCollections
+{
+    private ConfigurationObjectFactory cof;
+
+    @Before
+    public void setUp()
+    {
+        cof = new ConfigurationObjectFactory(new Properties());
+    }
+
+    @After
+    public void tearDown()
+    {
+        cof = null;
+    }
+
+    @Test
+    public void testLists()
+    {
+        PrimitiveCollections ec = cof.build(PrimitiveCollections.class);
+
+        Assert.assertEquals(IntList.of(3, 1, 2, 1), ec.getIntList());
+        Assert.assertEquals(4, ec.getIntList().size());
+        Assert.assertEquals(2, ec.getIntList().get(2));
+        Assert.assertEquals(LongList.of(5000000000L, -1L), ec.getLongList());
+    }
+
+    @Test
+    public void testDenseSet()
+    {
+        PrimitiveCollections ec = cof.build(PrimitiveCollections.class);
+
+        Assert.assertEquals(IntSet.of(1, 2, 3), ec.getIntSet());
+        Assert.assertArrayEquals(new int[] { 1, 2, 3 }, ec.getIntSet().toArray());
+        Assert.assertTrue(ec.getIntSet().contains(2));
+        Assert.assertFalse(ec.getIntSet().contains(0));
+        Assert.assertFalse(ec.getIntSet().contains(Integer.MIN_VALUE));
+        Assert.assertFalse(ec.getIntSet().contains(64));
+    }
+
+    @Test
+    public void testSparseSet()
+    {
+        PrimitiveCollections ec = cof.build(PrimitiveCollections.class);
+
+        Assert.assertEquals(3, ec.getLongSet().size());
+        Assert.assertTrue(ec.getLongSet().contains(Long.MIN_VALUE));
+        Assert.assertTrue(ec.getLongSet().contains(Long.MAX_VALUE));
+        Assert.assertTrue(ec.getLongSet().contains(0L));
+        Assert.assertFalse(ec.getLongSet().contains(1L));
+
+        IntSet sparse = IntSet.of(Integer.MAX_VALUE, -7, Integer.MIN_VALUE);
+        Assert.assertTrue(sparse.contains(-7));
+        Assert.assertFalse(sparse.contains(7));
+    }
+
+    @Test
+    public void testEmptyAndNull()
+    {
+        EmptyCollections ec = cof.build(EmptyCollections.class);
+
+        Assert.assertTrue(ec.getIntSet().isEmpty());
+        Assert.assertFalse(ec.getIntSet().contains(0));
+        Assert.assertNull(ec.getLongList());
+    }
+
+    public static interface PrimitiveCollections
+    {
+        @Config("int-list")
+        @Default("3, 1, 2, 1")
+        IntList getIntList();
+
+        @Config("long-list")
+        @Default("5000000000, -1")
+        LongList getLongList();
+
+        @Config("int-set")
+        @Default("3, 1, 2, 1")
+        IntSet getIntSet();
+
+        @Config("long-set")
+        @Separator("\\s*;\\s*")
+        @Default("9223372036854775807; 0; -9223372036854775808; 0")
+        LongSet getLongSet();
+    }
+
+    public static interface EmptyCollections
+    {
+        @Config("int-set")
+        @Default("")
+        IntSet getIntSet();
+
+        @Config("long-list")
+        @DefaultNull
+        LongList getLongList();
+    }
+}
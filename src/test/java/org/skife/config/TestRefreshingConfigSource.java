@@ -0,0 +1,246 @@
+package org.skife.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestRefreshingConfigSource
+{
+    private RefreshingConfigSource source;
+
+    @After
+    public void tearDown()
+    {
+        if (source != null) {
+            source.close();
+        }
+    }
+
+    @Test
+    public void testServesLastGoodSnapshot() throws Exception
+    {
+        final StubBackend backend = new StubBackend();
+        backend.values.put("foo", "hello, world");
+        backend.values.put("bar", "23");
+
+        source = new RefreshingConfigSource(backend, new TimeSpan("1h"), 2);
+        awaitFirstRefresh();
+        final Config5 config = new ConfigurationObjectFactory(source).build(Config5.class);
+
+        Assert.assertEquals("hello, world", config.getFoo());
+        Assert.assertEquals(23, config.getBar());
+        Assert.assertNull(source.getString("baz"));
+        Assert.assertEquals(1, source.getRefreshes());
+        Assert.assertEquals(3, source.getHits());
+        Assert.assertEquals(0, source.getMisses());
+        Assert.assertTrue(source.getStaleness(TimeUnit.NANOSECONDS) >= 0);
+
+        backend.down = true;
+        Assert.assertFalse(source.refresh());
+        Assert.assertEquals("23", source.getString("bar"));
+        Assert.assertEquals(1, source.getFailures());
+
+        backend.down = false;
+        backend.values.put("bar", "42");
+        Assert.assertTrue(source.refresh());
+        Assert.assertEquals("42", source.getString("bar"));
+        Assert.assertEquals(0, backend.singleFetches.get());
+    }
+
+    @Test
+    public void testFetchesSinglePropertiesUntilTheFirstSnapshot()
+    {
+        final StubBackend backend = new StubBackend();
+        backend.down = true;
+        backend.values.put("foo", "hello");
+
+        source = new RefreshingConfigSource(backend, new TimeSpan("1h"), 2);
+        Assert.assertEquals(-1, source.getStaleness(TimeUnit.MILLISECONDS));
+
+        Assert.assertEquals("hello", source.getString("foo"));
+        Assert.assertEquals("hello", source.getString("foo"));
+        Assert.assertNull(source.getString("bar"));
+        Assert.assertNull(source.getString("bar"));
+        Assert.assertEquals(2, backend.singleFetches.get());
+        Assert.assertEquals(2, source.getMisses());
+        Assert.assertEquals(2, source.getHits());
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneFetch() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        final StubBackend backend = new StubBackend() {
+            @Override
+            public String fetch(final String propertyName) throws Exception
+            {
+                singleFetches.incrementAndGet();
+                release.await(10, TimeUnit.SECONDS);
+                return values.get(propertyName);
+            }
+        };
+        backend.down = true;
+        backend.values.put("foo", "hello");
+        source = new RefreshingConfigSource(backend, new TimeSpan("1h"), 1);
+
+        final List<Thread> threads = new ArrayList<Thread>();
+        final AtomicInteger found = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            final Thread thread = new Thread() {
+                @Override
+                public void run()
+                {
+                    if ("hello".equals(source.getString("foo"))) {
+                        found.incrementAndGet();
+                    }
+                }
+            };
+            thread.start();
+            threads.add(thread);
+        }
+        while (backend.singleFetches.get() == 0) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(50);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(5, found.get());
+        Assert.assertEquals(1, backend.singleFetches.get());
+    }
+
+    @Test
+    public void testConstructorDoesNotWaitForTheBackend() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        final StubBackend backend = new StubBackend() {
+            @Override
+            public Map<String, String> fetchAll() throws Exception
+            {
+                release.await(10, TimeUnit.SECONDS);
+                return super.fetchAll();
+            }
+        };
+        backend.values.put("foo", "hello");
+
+        source = new RefreshingConfigSource(backend, new TimeSpan("1h"), 2);
+        Assert.assertEquals(0, source.getRefreshes());
+
+        release.countDown();
+        awaitFirstRefresh();
+        Assert.assertEquals("hello", source.getString("foo"));
+        Assert.assertEquals(0, backend.singleFetches.get());
+    }
+
+    @Test
+    public void testFailedFetchesAreRemembered() throws Exception
+    {
+        final StubBackend backend = new StubBackend();
+        backend.down = true;
+        backend.singleDown = true;
+        backend.values.put("foo", "hello");
+        source = new RefreshingConfigSource(backend, new TimeSpan("1h"), 2);
+
+        Assert.assertNull(source.getString("foo"));
+        Assert.assertNull(source.getString("foo"));
+        Assert.assertEquals(1, backend.singleFetches.get());
+
+        backend.singleDown = false;
+        Thread.sleep(RefreshingConfigSource.FAILURE_RETRY_MILLIS + 100);
+        Assert.assertEquals("hello", source.getString("foo"));
+        Assert.assertEquals(2, backend.singleFetches.get());
+    }
+
+    @Test
+    public void testConcurrentRefreshesPublishTheLatestFetch() throws Exception
+    {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger fetches = new AtomicInteger();
+        final StubBackend backend = new StubBackend() {
+            @Override
+            public Map<String, String> fetchAll() throws Exception
+            {
+                final int fetch = fetches.incrementAndGet();
+                final Map<String, String> result = new HashMap<String, String>();
+                result.put("foo", "fetch " + fetch);
+                if (fetch == 2) {
+                    entered.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                return result;
+            }
+        };
+        source = new RefreshingConfigSource(backend, new TimeSpan("1h"), 2);
+        awaitFirstRefresh();
+
+        final Thread slow = new Thread() {
+            @Override
+            public void run()
+            {
+                source.refresh();
+            }
+        };
+        slow.start();
+        Assert.assertTrue(entered.await(10, TimeUnit.SECONDS));
+        final Thread fast = new Thread() {
+            @Override
+            public void run()
+            {
+                source.refresh();
+            }
+        };
+        fast.start();
+        fast.join(100);
+        release.countDown();
+        slow.join();
+        fast.join();
+
+        // The slow fetch started first, so it must not replace the values of the later one.
+        Assert.assertEquals("fetch 3", source.getString("foo"));
+        Assert.assertEquals(3, source.getRefreshes());
+    }
+
+    private void awaitFirstRefresh() throws InterruptedException
+    {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (source.getRefreshes() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static class StubBackend implements RefreshingConfigSource.Backend
+    {
+        final Map<String, String> values = new HashMap<String, String>();
+        final AtomicInteger singleFetches = new AtomicInteger();
+        volatile boolean down;
+        volatile boolean singleDown;
+
+        public Map<String, String> fetchAll() throws Exception
+        {
+            if (down) {
+                throw new IllegalStateException("backend is down");
+            }
+            return values;
+        }
+
+        public String fetch(final String propertyName) throws Exception
+        {
+            singleFetches.incrementAndGet();
+            if (singleDown) {
+                throw new IllegalStateException("backend is down");
+            }
+            return values.get(propertyName);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package org.skife.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestReloadable
+{
+    private MutableConfigSource source;
+    private ConfigurationObjectFactory cof;
+
+    @Before
+    public void setUp()
+    {
+        source = new MutableConfigSource();
+        source.values.put("foo", "hello");
+        source.values.put("bar", "1");
+        cof = new ConfigurationObjectFactory(source);
+        // Reloads run on the thread that reports the change, so the tests see them right away.
+        cof.setAsyncExecutor(new Executor() {
+            public void execute(final Runnable command)
+            {
+                command.run();
+            }
+        });
+    }
+
+    @Test
+    public void testReloadOnSourceChange()
+    {
+        final Config5 config = cof.buildReloadable(Config5.class);
+        Assert.assertEquals("hello", config.getFoo());
+        Assert.assertEquals(1, config.getBar());
+
+        source.set("bar", "2");
+
+        Assert.assertEquals("hello", config.getFoo());
+        Assert.assertEquals(2, config.getBar());
+    }
+
+    @Test
+    public void testChangeWhileBuilding() throws Exception
+    {
+        final AtomicInteger calls = new AtomicInteger();
+        final MutableConfigSource changing = new MutableConfigSource() {
+            @Override
+            public String getString(final String propertyName)
+            {
+                final String value = super.getString(propertyName);
+                if ("bar".equals(propertyName) && calls.incrementAndGet() == 1) {
+                    // The value changes right after the build read it.
+                    final Thread thread = new Thread(new Runnable() {
+                        public void run()
+                        {
+                            set("bar", "2");
+                        }
+                    });
+                    thread.start();
+                    try {
+                        thread.join();
+                    }
+                    catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return value;
+            }
+        };
+        changing.values.put("foo", "hello");
+        changing.values.put("bar", "1");
+
+        final Config5 config = new ConfigurationObjectFactory(changing).buildReloadable(Config5.class);
+
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (config.getBar() != 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(2, config.getBar());
+    }
+
+    @Test
+    public void testBuiltObjectsStayFixed()
+    {
+        final Config5 config = cof.build(Config5.class);
+        cof.buildReloadable(Config5.class);
+
+        source.set("bar", "2");
+
+        Assert.assertEquals(1, config.getBar());
+    }
+
+    @Test
+    public void testFailedReloadKeepsValues() throws Exception
+    {
+        final Config5 config = cof.buildReloadable(Config5.class);
+
+        source.set("bar", "not a number");
+        Assert.assertEquals(1, config.getBar());
+
+        source.set("bar", "3");
+        Assert.assertEquals(3, config.getBar());
+    }
+
+    @Test
+    public void testToStringShowsReloadedValues()
+    {
+        final Config5 config = cof.buildReloadable(Config5.class);
+        Assert.assertTrue(config.toString().contains("hello"));
+
+        source.set("foo", "goodbye");
+
+        Assert.assertTrue(config.toString().contains("goodbye"));
+        Assert.assertFalse(config.toString().contains("hello"));
+
+        // Objects of the same class do not share what they print.
+        final Config5 fixed = new ConfigurationObjectFactory(new MutableConfigSource() {
+            {
+                values.put("foo", "other");
+                values.put("bar", "4");
+            }
+        }).build(Config5.class);
+        Assert.assertTrue(fixed.toString().contains("other"));
+        Assert.assertTrue(config.toString().contains("goodbye"));
+    }
+
+    @Test
+    public void testReplacements()
+    {
+        source.values.put("option.dynamic", "first");
+        final Map<String, String> replacements = new HashMap<String, String>();
+        replacements.put("type", "dynamic");
+        final TestBatchConfigSource.Batched config = cof.buildReloadableWithReplacements(TestBatchConfigSource.Batched.class, replacements);
+
+        // Changing the map afterwards must not change what the object reloads.
+        replacements.put("type", "other");
+        source.set("option.dynamic", "second");
+
+        Assert.assertEquals("second", config.getOption());
+    }
+
+    @Test
+    public void testOnlyChangedPropertiesAreLookedUp()
+    {
+        final Config5 config = cof.buildReloadable(Config5.class);
+        final Config5 other = cof.buildReloadable(Config5.class);
+        source.lookups.clear();
+
+        source.set("bar", "2");
+
+        Assert.assertEquals(2, config.getBar());
+        Assert.assertEquals(2, other.getBar());
+        Assert.assertEquals(Collections.singleton("bar"), source.lookups.keySet());
+        Assert.assertEquals(2, source.lookups.get("bar").get());
+
+        source.set("unused", "value");
+        Assert.assertEquals(Collections.singleton("bar"), source.lookups.keySet());
+    }
+
+    @Test
+    public void testUnknownChangesReloadEverything()
+    {
+        final Config5 config = cof.buildReloadable(Config5.class);
+        source.values.put("foo", "changed");
+        source.values.put("bar", "2");
+
+        source.fire(null);
+
+        Assert.assertEquals("changed", config.getFoo());
+        Assert.assertEquals(2, config.getBar());
+    }
+
+    @Test
+    public void testBurstOfChangesQueuesOneReload()
+    {
+        final List<Runnable> queued = new ArrayList<Runnable>();
+        cof.setAsyncExecutor(new Executor() {
+            public void execute(final Runnable command)
+            {
+                queued.add(command);
+            }
+        });
+        final Config5 config = cof.buildReloadable(Config5.class);
+        source.lookups.clear();
+
+        for (int i = 0; i < 50; i++) {
+            source.set("bar", Integer.toString(i));
+        }
+        source.set("foo", "changed");
+        final CompletableFuture<Void> reload = cof.reload(Collections.singleton("bar"));
+
+        Assert.assertEquals(1, queued.size());
+        Assert.assertFalse(reload.isDone());
+        queued.remove(0).run();
+
+        Assert.assertTrue(reload.isDone());
+        Assert.assertEquals("changed", config.getFoo());
+        Assert.assertEquals(49, config.getBar());
+        Assert.assertEquals(1, source.lookups.get("bar").get());
+
+        // The next change queues a new reload.
+        source.set("bar", "50");
+        Assert.assertEquals(1, queued.size());
+        queued.remove(0).run();
+        Assert.assertEquals(50, config.getBar());
+    }
+
+    @Test
+    public void testExplicitReload() throws Exception
+    {
+        final Map<String, String> values = new ConcurrentHashMap<String, String>();
+        values.put("foo", "hello");
+        values.put("bar", "1");
+        final ConfigurationObjectFactory factory = new ConfigurationObjectFactory(new ConfigSource() {
+            public String getString(final String propertyName)
+            {
+                return values.get(propertyName);
+            }
+        });
+        final Config5 config = factory.buildReloadable(Config5.class);
+
+        values.put("bar", "2");
+        Assert.assertEquals(1, config.getBar());
+
+        factory.reload().get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(2, config.getBar());
+    }
+
+    static class MutableConfigSource implements ObservableConfigSource
+    {
+        final Map<String, String> values = new ConcurrentHashMap<String, String>();
+        final Map<String, AtomicInteger> lookups = new ConcurrentHashMap<String, AtomicInteger>();
+        private final ConfigSourceListeners listeners = new ConfigSourceListeners();
+
+        public String getString(final String propertyName)
+        {
+            lookups.putIfAbsent(propertyName, new AtomicInteger());
+            lookups.get(propertyName).incrementAndGet();
+            return values.get(propertyName);
+        }
+
+        public void addListener(final ConfigSourceListener listener)
+        {
+            listeners.add(listener);
+        }
+
+        public void removeListener(final ConfigSourceListener listener)
+        {
+            listeners.remove(listener);
+        }
+
+        void set(final String propertyName, final String value)
+        {
+            values.put(propertyName, value);
+            listeners.fire(Collections.singleton(propertyName));
+        }
+
+        void fire(final Set<String> changedKeys)
+        {
+            listeners.fire(changedKeys);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package org.skife.config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestResourceLimits
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testHeapRelative()
+    {
+        long maxHeap = Runtime.getRuntime().maxMemory();
+
+        Assert.assertEquals(maxHeap / 4, new DataAmount("25%heap").getNumberOfBytes());
+        Assert.assertEquals((long) (maxHeap * 12.5 / 100), new DataAmount("12.5 % heap").getNumberOfBytes());
+        Assert.assertEquals(DataAmountUnit.BYTE, new DataAmount("25%heap").getUnit());
+        Assert.assertTrue(new DataAmount("10%direct").getNumberOfBytes() > 0);
+        Assert.assertTrue(new DataAmount("10%memory").getNumberOfBytes() > 0);
+    }
+
+    @Test
+    public void testInvalidRelative()
+    {
+        assertInvalidAmount("25%disk");
+        assertInvalidAmount("%heap");
+        assertInvalidAmount("-5%heap");
+        assertInvalidAmount("1.2.3%heap");
+        assertInvalidAmount("250%heap");
+        assertInvalidAmount("100.5%memory");
+        Assert.assertEquals(Runtime.getRuntime().maxMemory(), new DataAmount("100%heap").getNumberOfBytes());
+    }
+
+    @Test
+    public void testCgroupV2() throws IOException
+    {
+        write("memory.max", "1073741824\n");
+        Assert.assertEquals(1073741824L, limits().memoryLimit());
+    }
+
+    @Test
+    public void testCgroupV1() throws IOException
+    {
+        write("memory.max", "max\n");
+        folder.newFolder("memory");
+        write("memory/memory.limit_in_bytes", "536870912\n");
+        Assert.assertEquals(536870912L, limits().memoryLimit());
+    }
+
+    @Test
+    public void testCgroupUnlimited() throws IOException
+    {
+        folder.newFolder("memory");
+        write("memory/memory.limit_in_bytes", "9223372036854771712\n");
+        long limit = limits().memoryLimit();
+        Assert.assertTrue(limit > 0 && limit < 9223372036854771712L);
+    }
+
+    @Test
+    public void testCgroupV2OfProcess() throws IOException
+    {
+        // A systemd service on a host: the limit is in the cgroup of the process, not in the root.
+        folder.newFolder("system.slice", "foo.service");
+        write("memory.max", "max\n");
+        write("system.slice/memory.max", "2147483648\n");
+        write("system.slice/foo.service/memory.max", "1073741824\n");
+        write("self-cgroup", "0::/system.slice/foo.service\n");
+        Assert.assertEquals(1073741824L, limits().memoryLimit());
+
+        // A parent with a lower limit wins.
+        write("system.slice/memory.max", "536870912\n");
+        Assert.assertEquals(536870912L, limits().memoryLimit());
+    }
+
+    @Test
+    public void testCgroupV1OfProcess() throws IOException
+    {
+        folder.newFolder("memory", "user.slice");
+        write("memory/memory.limit_in_bytes", "9223372036854771712\n");
+        write("memory/user.slice/memory.limit_in_bytes", "536870912\n");
+        write("self-cgroup", "5:cpu,cpuacct:/\n4:memory:/user.slice\n1:name=systemd:/user.slice\n");
+        Assert.assertEquals(536870912L, limits().memoryLimit());
+    }
+
+    @Test
+    public void testCgroupOfProcessNotMounted() throws IOException
+    {
+        // A container without its own cgroup namespace lists a host path that does not exist inside it.
+        write("memory.max", "1073741824\n");
+        write("self-cgroup", "0::/docker/0123456789abcdef\n");
+        Assert.assertEquals(1073741824L, limits().memoryLimit());
+    }
+
+    @Test
+    public void testProcessorRelative()
+    {
+        int processors = Runtime.getRuntime().availableProcessors();
+        Processors ec = new ConfigurationObjectFactory(Props.of("threads", "2xcpus")).build(Processors.class);
+
+        Assert.assertEquals(2 * processors, ec.getThreads());
+        Assert.assertEquals(Integer.valueOf(processors), ec.getWorkers());
+        Assert.assertEquals(Math.max(1, Math.round(0.25 * processors)), ResourceLimits.DEFAULT.parseCpuRelative("0.25 x cpus"));
+        Assert.assertEquals(-1, ResourceLimits.DEFAULT.parseCpuRelative("12"));
+    }
+
+    @Test
+    public void testProcessorRelativeElements()
+    {
+        int processors = Runtime.getRuntime().availableProcessors();
+        ProcessorLists ec = new ConfigurationObjectFactory(Props.of("threads", "2xcpus, 3, cpus")).build(ProcessorLists.class);
+
+        Assert.assertArrayEquals(new int[] { 2 * processors, 3, processors }, ec.getArray());
+        Assert.assertEquals(Arrays.asList(2 * processors, 3, processors), ec.getList());
+        Assert.assertEquals(new IntList(new int[] { 2 * processors, 3, processors }), ec.getIntList());
+        Assert.assertTrue(ec.getIntSet().contains(2 * processors));
+        Assert.assertTrue(ec.getIntSet().contains(processors));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidProcessorRelative()
+    {
+        new ConfigurationObjectFactory(Props.of("threads", "2ycpus")).build(Processors.class);
+    }
+
+    private ResourceLimits limits()
+    {
+        return new ResourceLimits(folder.getRoot(), new File(folder.getRoot(), "self-cgroup"));
+    }
+
+    private void write(String name, String content) throws IOException
+    {
+        FileOutputStream out = new FileOutputStream(new File(folder.getRoot(), name));
+        try {
+            out.write(content.getBytes(StandardCharsets.US_ASCII));
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    private static void assertInvalidAmount(String spec)
+    {
+        try {
+            new DataAmount(spec);
+            Assert.fail("expected '" + spec + "' to be rejected");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public static interface ProcessorLists
+    {
+        @Config("threads")
+        int[] getArray();
+
+        @Config("threads")
+        List<Integer> getList();
+
+        @Config("threads")
+        IntList getIntList();
+
+        @Config("threads")
+        IntSet getIntSet();
+    }
+
+    public static interface Processors
+    {
+        @Config("threads")
+        int getThreads();
+
+        @Config("workers")
+        @Default("cpus")
+        Integer getWorkers();
+    }
+}
@@ -0,0 +1,110 @@
+package org.skife.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSelectivePropertiesReader
+{
+    @Test
+    public void testFilterFromConfigClasses()
+    {
+        final PropertyNameFilter filter = PropertyNameFilter.forConfigClasses(Selected.class);
+
+        Assert.assertTrue(filter.accepts("db.url"));
+        Assert.assertTrue(filter.accepts("db.user"));
+        Assert.assertTrue(filter.accepts("pool.orders.size"));
+        Assert.assertTrue(filter.accepts("pool..size"));
+        Assert.assertTrue(filter.accepts("shard.a.b.timeout"));
+        Assert.assertFalse(filter.accepts("db.password"));
+        Assert.assertFalse(filter.accepts("pool.orders.sizes"));
+        Assert.assertFalse(filter.accepts("shard.a.timeout"));
+        Assert.assertFalse(filter.accepts("pool.size"));
+    }
+
+    @Test
+    public void testOnlyAcceptedPropertiesAreRead() throws IOException
+    {
+        final String content =
+            "# shared file\n" +
+            "db.url = jdbc:h2:mem\n" +
+            "db.password = secret\n" +
+            "unrelated.key = one, \\\n" +
+            "    two\n" +
+            "pool.orders.size : 10\n" +
+            "pool.users.size 20\n" +
+            "pool.users.timeout = 5s\n" +
+            "db\\.user=\\u0073a\n" +
+            "db.url = jdbc:h2:file\n";
+
+        final Map<String, String> values = SelectivePropertiesReader.read(new ByteArrayInputStream(content.getBytes("ISO-8859-1")), PropertyNameFilter.forConfigClasses(Selected.class));
+
+        final Map<String, String> expected = new HashMap<String, String>();
+        expected.put("db.url", "jdbc:h2:file");
+        expected.put("db.user", "sa");
+        expected.put("pool.orders.size", "10");
+        expected.put("pool.users.size", "20");
+        Assert.assertEquals(expected, values);
+
+        final Selected config = new ConfigurationObjectFactory(new SnapshotConfigSource(values)).build(Selected.class);
+        Assert.assertEquals("jdbc:h2:file", config.getUrl());
+        Assert.assertEquals(20, config.getPoolSize("users"));
+        Assert.assertEquals(4, config.getPoolSize("unknown"));
+    }
+
+    @Test
+    public void testSameAsPropertiesLoad() throws IOException
+    {
+        final String content =
+            "  ! comment \\\n" +
+            "plain=value\n" +
+            "   indented   =   spaced value  \n" +
+            "colon:value\r\n" +
+            "whitespace separated\tvalue\r" +
+            "both = : value\n" +
+            "twice == value\n" +
+            "continued = first, \\\n" +
+            "            second, \\\r\n" +
+            "\tthird\n" +
+            "key\\ with\\=escapes\\:= x\\ty\\u00e9\\\\\n" +
+            "empty=\n" +
+            "novalue\n" +
+            "=emptykey\n" +
+            "escaped\\ =\\  leading\n" +
+            "last=no newline\\";
+
+        final Properties expected = new Properties();
+        expected.load(new StringReader(content));
+
+        final Map<String, String> values = SelectivePropertiesReader.read(new StringReader(content), PropertyNameFilter.of("${any}"));
+
+        Assert.assertEquals(expected.size(), values.size());
+        for (String name : expected.stringPropertyNames()) {
+            Assert.assertEquals(name, expected.getProperty(name), values.get(name));
+        }
+    }
+
+    public static interface Selected
+    {
+        @Config({"db.url", "db.jdbc-url"})
+        String getUrl();
+
+        @Config("db.user")
+        @DefaultNull
+        String getUser();
+
+        @Config("pool.${name}.size")
+        @Default("4")
+        int getPoolSize(@Param("name") String name);
+
+        @Config("shard.${a}.${b}.timeout")
+        @DefaultNull
+        TimeSpan getTimeout(@Param("a") String a, @Param("b") String b);
+    }
+}
@@ -0,0 +1,53 @@
+package org.skife.config;
+
+import static org.hamcrest.CoreMatchers.is;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestSnapshotConfigSource
+{
+    @Test
+    public void testPropertiesWithDefaults()
+    {
+        final Properties defaults = new Properties();
+        defaults.setProperty("foo", "default foo");
+        defaults.setProperty("bar", "1");
+        final Properties props = new Properties(defaults);
+        props.setProperty("bar", "23");
+        props.put("ignored", new Object());
+
+        final SnapshotConfigSource source = new SnapshotConfigSource(props);
+        props.setProperty("foo", "changed");
+
+        final Config5 config = new ConfigurationObjectFactory(source).build(Config5.class);
+
+        Assert.assertThat(config.getFoo(), is("default foo"));
+        Assert.assertThat(config.getBar(), is(23));
+        Assert.assertEquals(2, source.size());
+        Assert.assertNull(source.getString("ignored"));
+        Assert.assertNull(source.getString(null));
+    }
+
+    @Test
+    public void testMap()
+    {
+        final Map<String, String> values = new HashMap<String, String>();
+        for (int i = 0; i < 10000; i++) {
+            values.put("key." + i, String.valueOf(i));
+        }
+        final SnapshotConfigSource source = new SnapshotConfigSource(values);
+
+        Assert.assertEquals(10000, source.size());
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertEquals(String.valueOf(i), source.getString("key." + i));
+        }
+        Assert.assertNull(source.getString("key.10000"));
+        // "Aa" and "BB" have the same hash code.
+        Assert.assertNull(new SnapshotConfigSource(Props.of("Aa", "1")).getString("BB"));
+    }
+}
@@ -1,5 +1,6 @@
 package org.skife.config;
 
+import java.time.Duration;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
 
@@ -125,6 +126,111 @@ public class TestTimeSpan
         cof.build(ClassWithTimespanWithIllegalUnit.class);
     }
 
+    @Test
+    public void testParsing()
+    {
+        Assert.assertEquals(new TimeSpan(12, TimeUnit.SECONDS), new TimeSpan("  12s\t"));
+        Assert.assertEquals(new TimeSpan(0, TimeUnit.HOURS), new TimeSpan("0h"));
+        Assert.assertEquals(new TimeSpan(5, TimeUnit.MINUTES), new TimeSpan("5\tmin"));
+        assertInvalid("5", "5 is not a valid time spec");
+        assertInvalid("", " is not a valid time spec");
+        assertInvalid("s", "s is not a valid time spec");
+        assertInvalid("5  s", "5  s is not a valid time spec");
+        assertInvalid("-5s", "-5s is not a valid time spec");
+        assertInvalid("5s!", "5s! is not a valid time spec");
+        assertInvalid("5x", "x is not a valid time unit in 5x");
+        assertInvalid("5S", "S is not a valid time unit in 5S");
+        assertInvalid("55", "5 is not a valid time unit in 55");
+        assertInvalid("5s5", "5s5 is not a valid time spec");
+        assertInvalid("5_s", "5_s is not a valid time spec");
+        assertInvalid("10ms5", "10ms5 is not a valid time spec");
+        assertInvalid("1h 30", "1h 30 is not a valid time spec");
+        assertInvalid("1h30x", "x is not a valid time unit in 1h30x");
+        assertInvalid("106751992d1ns", "106751992d1ns is too large");
+    }
+
+    @Test
+    public void testSubMillisecondUnits()
+    {
+        Assert.assertEquals(new TimeSpan(250, TimeUnit.MICROSECONDS), new TimeSpan("250us"));
+        Assert.assertEquals(new TimeSpan(250, TimeUnit.MICROSECONDS), new TimeSpan("250µs"));
+        Assert.assertEquals(new TimeSpan(250, TimeUnit.MICROSECONDS), new TimeSpan("250 microseconds"));
+        Assert.assertEquals(new TimeSpan(100, TimeUnit.NANOSECONDS), new TimeSpan("100ns"));
+        Assert.assertEquals(100L, new TimeSpan("100ns").getNanos());
+        Assert.assertEquals(0L, new TimeSpan("100ns").getMillis());
+        Assert.assertEquals(1500000L, new TimeSpan("1500us").getNanos());
+        Assert.assertEquals(1L, new TimeSpan("1500us").getMillis());
+        Assert.assertFalse(new TimeSpan("1500us").equals(new TimeSpan("1ms")));
+        Assert.assertEquals("1500us", new TimeSpan("1500us").toString());
+        Assert.assertEquals(5000000000L, new TimeSpan("5s").getNanos());
+    }
+
+    @Test
+    public void testCompound()
+    {
+        TimeSpan span = new TimeSpan("1h30m");
+        Assert.assertEquals(90, span.getPeriod());
+        Assert.assertEquals(TimeUnit.MINUTES, span.getUnit());
+        Assert.assertEquals(new TimeSpan(90, TimeUnit.MINUTES), span);
+
+        Assert.assertEquals(new TimeSpan(90, TimeUnit.SECONDS), new TimeSpan("1m 30s"));
+        Assert.assertEquals(new TimeSpan(1001, TimeUnit.MICROSECONDS), new TimeSpan("1ms1us"));
+        Assert.assertEquals(new TimeSpan(90061, TimeUnit.SECONDS), new TimeSpan("1d 1h 1m 1s"));
+        assertInvalid("1h1h", "h must be a smaller unit than the one before it in 1h1h");
+        assertInvalid("1 day 1 day", "day must be a smaller unit than the one before it in 1 day 1 day");
+        assertInvalid("30m1h", "h must be a smaller unit than the one before it in 30m1h");
+        assertInvalid("1h 30m 1s 5m", "m must be a smaller unit than the one before it in 1h 30m 1s 5m");
+    }
+
+    @Test
+    public void testDuration()
+    {
+        Durations ec = cof.build(Durations.class);
+
+        Assert.assertEquals(Duration.ofMillis(5), ec.getTimeSpanSyntax());
+        Assert.assertEquals(Duration.ofMinutes(90), ec.getCompound());
+        Assert.assertEquals(Duration.ofSeconds(90), ec.getIso());
+        Assert.assertEquals(Duration.ofNanos(-1500), ec.getNegativeIso());
+        Assert.assertEquals(Duration.ofNanos(250), new TimeSpan("250ns").toDuration());
+        Assert.assertEquals(Duration.ofDays(3), new TimeSpan("3d").toDuration());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidIsoDuration()
+    {
+        new ConfigurationObjectFactory(Props.of("iso", "PT1X")).build(Durations.class);
+    }
+
+    private static void assertInvalid(String spec, String message)
+    {
+        try {
+            new TimeSpan(spec);
+            Assert.fail("expected '" + spec + "' to be rejected");
+        }
+        catch (IllegalArgumentException e) {
+            Assert.assertEquals(message, e.getMessage());
+        }
+    }
+
+    public static interface Durations
+    {
+        @Config("timespan")
+        @Default("5ms")
+        Duration getTimeSpanSyntax();
+
+        @Config("compound")
+        @Default("1h 30m")
+        Duration getCompound();
+
+        @Config("iso")
+        @Default(" PT1M30S ")
+        Duration getIso();
+
+        @Config("negative-iso")
+        @Default("-pt0.0000015s")
+        Duration getNegativeIso();
+    }
+
     public static abstract class ClassWithMilliseconds
     {
         @Config("value")
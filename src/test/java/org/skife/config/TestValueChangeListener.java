@@ -0,0 +1,215 @@
+package org.skife.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestValueChangeListener
+{
+    private TestReloadable.MutableConfigSource source;
+    private ConfigurationObjectFactory cof;
+    private final List<Runnable> pending = new ArrayList<Runnable>();
+
+    @Before
+    public void setUp()
+    {
+        source = new TestReloadable.MutableConfigSource();
+        source.values.put("foo", "hello");
+        source.values.put("bar", "1");
+        cof = new ConfigurationObjectFactory(source);
+        cof.setAsyncExecutor(new Executor() {
+            public void execute(final Runnable command)
+            {
+                command.run();
+            }
+        });
+        // Listeners only run when the test says so.
+        cof.setChangeListenerExecutor(new Executor() {
+            public void execute(final Runnable command)
+            {
+                pending.add(command);
+            }
+        });
+    }
+
+    @Test
+    public void testTypedOldAndNewValues() throws Exception
+    {
+        final List<Integer> changes = new ArrayList<Integer>();
+        cof.onChange(Config5.class.getMethod("getBar"), new ValueChangeListener<Integer>() {
+            public void valueChanged(final Integer oldValue, final Integer newValue)
+            {
+                if (oldValue == 1) {
+                    // Gives later calls the chance to overtake this one if the calls were not serial.
+                    try {
+                        Thread.sleep(100);
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                changes.add(oldValue);
+                changes.add(newValue);
+            }
+        });
+        final Config5 config = cof.buildReloadable(Config5.class);
+
+        source.set("bar", "2");
+        source.set("foo", "changed");
+
+        // The reload is done before the listener runs.
+        Assert.assertEquals(2, config.getBar());
+        Assert.assertEquals(1, pending.size());
+        runPending();
+        Assert.assertEquals(Arrays.asList(1, 2), changes);
+    }
+
+    @Test
+    public void testEqualValuesDoNotFire() throws Exception
+    {
+        final List<Object> changes = new ArrayList<Object>();
+        cof.onChange(Config5.class.getMethod("getBar"), new ValueChangeListener<Integer>() {
+            public void valueChanged(final Integer oldValue, final Integer newValue)
+            {
+                changes.add(newValue);
+            }
+        });
+        cof.buildReloadable(Config5.class);
+
+        source.set("bar", "01");
+        source.fire(null);
+        runPending();
+
+        Assert.assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void testRemovedAndFailingListeners() throws Exception
+    {
+        final List<Object> changes = new ArrayList<Object>();
+        final ValueChangeListener<String> removed = new ValueChangeListener<String>() {
+            public void valueChanged(final String oldValue, final String newValue)
+            {
+                changes.add("removed");
+            }
+        };
+        cof.onChange(Config5.class.getMethod("getFoo"), new ValueChangeListener<String>() {
+            public void valueChanged(final String oldValue, final String newValue)
+            {
+                throw new IllegalStateException("listener failure");
+            }
+        });
+        cof.onChange(Config5.class.getMethod("getFoo"), removed);
+        cof.onChange(Config5.class.getMethod("getFoo"), new ValueChangeListener<String>() {
+            public void valueChanged(final String oldValue, final String newValue)
+            {
+                changes.add(newValue);
+            }
+        });
+        cof.removeChangeListener(Config5.class.getMethod("getFoo"), removed);
+        cof.buildReloadable(Config5.class);
+
+        source.set("foo", "changed");
+        runPending();
+
+        Assert.assertEquals(Arrays.<Object>asList("changed"), changes);
+    }
+
+    @Test
+    public void testBlockingListenersDoNotStopReloads() throws Exception
+    {
+        final ConfigurationObjectFactory factory = new ConfigurationObjectFactory(source);
+        final CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 32; i++) {
+            factory.onChange(Config5.class.getMethod("getBar"), new ValueChangeListener<Integer>() {
+                public void valueChanged(final Integer oldValue, final Integer newValue)
+                {
+                    try {
+                        release.await();
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+        final Config5 config = factory.buildReloadable(Config5.class);
+        try {
+            source.values.put("bar", "2");
+            factory.reload().get(2, TimeUnit.SECONDS);
+            source.values.put("bar", "3");
+            factory.reload().get(2, TimeUnit.SECONDS);
+            Assert.assertEquals(3, config.getBar());
+        }
+        finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testListenersSeeChangesInOrder() throws Exception
+    {
+        final ConfigurationObjectFactory factory = new ConfigurationObjectFactory(source);
+        final List<Integer> changes = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch last = new CountDownLatch(1);
+        factory.onChange(Config5.class.getMethod("getBar"), new ValueChangeListener<Integer>() {
+            public void valueChanged(final Integer oldValue, final Integer newValue)
+            {
+                if (oldValue == 1) {
+                    // Gives later calls the chance to overtake this one if the calls were not serial.
+                    try {
+                        Thread.sleep(100);
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                changes.add(oldValue);
+                changes.add(newValue);
+                if (newValue == 200) {
+                    last.countDown();
+                }
+            }
+        });
+        factory.buildReloadable(Config5.class);
+
+        for (int i = 2; i <= 200; i++) {
+            source.values.put("bar", Integer.toString(i));
+            factory.reload(Collections.singleton("bar")).get(2, TimeUnit.SECONDS);
+        }
+        Assert.assertTrue(last.await(10, TimeUnit.SECONDS));
+
+        // Every change starts where the one before ended.
+        Assert.assertEquals(Integer.valueOf(1), changes.get(0));
+        for (int idx = 2; idx < changes.size(); idx += 2) {
+            Assert.assertEquals(changes.get(idx - 1), changes.get(idx));
+        }
+        Assert.assertEquals(Integer.valueOf(200), changes.get(changes.size() - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOnlyConfigMethods() throws Exception
+    {
+        cof.onChange(Object.class.getMethod("toString"), new ValueChangeListener<String>() {
+            public void valueChanged(final String oldValue, final String newValue)
+            {
+            }
+        });
+    }
+
+    private void runPending()
+    {
+        for (Runnable runnable : pending) {
+            runnable.run();
+        }
+        pending.clear();
+    }
+}